@@ -0,0 +1,50 @@
+#!/bin/bash
+
+# Opens N concurrent /wait-for-response long-polls and reports how long the
+# server takes to answer all of them, plus the JVM thread count while they
+# are pending. Compare platform and virtual threads by starting the app with
+#
+#   java -jar target/signature-pad-demo.jar --app.signature-pad.timeout=10000 \
+#     --app.signature-pad.wait.max-pending=10000
+#   java -jar target/signature-pad-demo.jar --app.signature-pad.timeout=10000 \
+#     --app.signature-pad.wait.max-pending=10000 --spring.threads.virtual.enabled=true
+#
+# The count must not exceed app.signature-pad.wait.max-pending (default 1000),
+# further long-polls are rejected with HTTP 503 and only measure rejections.
+#
+# usage: ./TEST_LONG_POLL.sh [count] [base-url]
+#
+# Raise the open file limit first for large counts, e.g. ulimit -n 20000
+#
+# Record the results of both modes in the table in GEMINI.md.
+
+COUNT=${1:-5000}
+BASE_URL=${2:-http://localhost:8080}
+OUT=$(mktemp -d)
+
+START=$(date +%s.%N)
+
+for i in $(seq 1 $COUNT); do
+  UUID=$(cat /proc/sys/kernel/random/uuid)
+  curl -s -o /dev/null -w "%{http_code} %{time_total}\n" \
+    "$BASE_URL/api/v1/signature-pad/wait-for-response?uuid=$UUID" \
+    >> "$OUT/result-$(( i % 64 )).txt" &
+done
+
+sleep 2
+PID=$(pgrep -f signature-pad-demo | head -1)
+if [ -n "$PID" ]; then
+  echo "JVM threads while $COUNT long-polls are pending: $(ps -o nlwp= -p $PID)"
+fi
+
+wait
+END=$(date +%s.%N)
+
+cat "$OUT"/result-*.txt | awk -v count=$COUNT -v wall=$(echo "$END - $START" | bc) '
+  { codes[$1]++; sum += $2; if ($2 > max) max = $2 }
+  END {
+    printf "requests: %d, wall time: %.2fs, avg: %.3fs, max: %.3fs\n", count, wall, sum / NR, max
+    for (c in codes) printf "  HTTP %s: %d\n", c, codes[c]
+  }'
+
+rm -rf "$OUT"
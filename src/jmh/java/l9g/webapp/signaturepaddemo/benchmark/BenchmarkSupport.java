@@ -0,0 +1,142 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+import l9g.webapp.signaturepaddemo.service.PadKeyType;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Helpers shared by the JMH benchmarks.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public final class BenchmarkSupport
+{
+  private BenchmarkSupport()
+  {
+  }
+
+  /**
+   * Raises the log level to WARN. Without a Spring Boot logging setup
+   * logback logs everything at DEBUG, which would dominate the results.
+   */
+  public static void quietLogging()
+  {
+    ((Logger)LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+  }
+
+  /**
+   * Sets a field normally injected by Spring, e.g. a {@code @Value} field.
+   *
+   * @param target the object to modify
+   * @param name the field name
+   * @param value the new value
+   */
+  public static void setField(Object target, String name, Object value)
+  {
+    try
+    {
+      Field field = target.getClass().getDeclaredField(name);
+      field.setAccessible(true);
+      field.set(target, value);
+    }
+    catch(ReflectiveOperationException e)
+    {
+      throw new IllegalStateException("Can't set field " + name, e);
+    }
+  }
+
+  /**
+   * Creates a compact JWS shaped like a signature submission of a pad,
+   * with a random signature image making up most of its size.
+   *
+   * @param keyType the key type of the pad
+   * @param privateKey the private key of the pad
+   * @param kid the key ID of the pad
+   * @param size approximate size of the compact JWS in bytes
+   * @return the compact JWS
+   * @throws GeneralSecurityException if signing fails
+   */
+  public static String createSignatureJwt(
+    PadKeyType keyType, PrivateKey privateKey, String kid, int size)
+    throws GeneralSecurityException
+  {
+    // the image is base64 encoded twice, in the claim and in the JWS
+    byte[] image = new byte[Math.max(16, size * 9 / 16)];
+    new Random(42).nextBytes(image);
+
+    String header = "{\"alg\":\"" + keyType.getAlgorithm().getName()
+      + "\",\"kid\":\"" + kid + "\"}";
+    String payload = "{\"iss\":\"" + kid + "\",\"sigpad\":\"benchmark\","
+      + "\"sub\":\"benchmark\",\"name\":\"Bench Mark\","
+      + "\"mail\":\"bench.mark@example.org\","
+      + "\"sigpng\":\"" + Base64.getEncoder().encodeToString(image) + "\","
+      + "\"iat\":" + (System.currentTimeMillis() / 1000) + "}";
+
+    Base64.Encoder base64Url = Base64.getUrlEncoder().withoutPadding();
+    String signingInput =
+      base64Url.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+      + base64Url.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+
+    Signature signature = Signature.getInstance(switch(keyType)
+    {
+      case EC -> "SHA256withECDSAinP1363Format";
+      case ED25519 -> "Ed25519";
+      default -> "SHA256withRSA";
+    });
+    signature.initSign(privateKey);
+    signature.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+
+    return signingInput + "." + base64Url.encodeToString(signature.sign());
+  }
+
+  /**
+   * Deletes a directory tree created by a benchmark.
+   *
+   * @param dir the directory to delete
+   * @throws IOException if deleting fails
+   */
+  public static void deleteDirectory(Path dir)
+    throws IOException
+  {
+    if(Files.notExists(dir))
+    {
+      return;
+    }
+    try(Stream<Path> paths = Files.walk(dir))
+    {
+      for(Path path : paths.sorted(Comparator.reverseOrder()).toList())
+      {
+        Files.delete(path);
+      }
+    }
+  }
+
+}
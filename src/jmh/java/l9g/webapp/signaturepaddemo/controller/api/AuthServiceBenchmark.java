@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.observation.ObservationRegistry;
+import java.security.KeyPair;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+import l9g.webapp.signaturepaddemo.benchmark.BenchmarkSupport;
+import l9g.webapp.signaturepaddemo.service.PadKeyType;
+import l9g.webapp.signaturepaddemo.service.SignaturePad;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Signature submission verification: parsing the compact JWS alone and
+ * {@link AuthService#verifyJwt} with a cached and with a cold verifier,
+ * for every pad key type.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AuthServiceBenchmark
+{
+  @Param(
+    {
+      "RSA", "EC", "ED25519"
+    })
+  public PadKeyType keyType;
+
+  /** Size of the compact JWS, 200 KB is a typical signature submission */
+  @Param(
+    {
+      "204800"
+    })
+  public int jwtSize;
+
+  private AuthService authService;
+
+  private SignaturePad signaturePad;
+
+  private String jwt;
+
+  @Setup(Level.Trial)
+  public void setup()
+    throws Exception
+  {
+    BenchmarkSupport.quietLogging();
+    KeyPair keyPair = keyType.generateKeyPair();
+    signaturePad = new SignaturePad("benchmark");
+    signaturePad.createPrivateJWK(keyPair);
+    jwt = BenchmarkSupport.createSignatureJwt(
+      keyType, keyPair.getPrivate(), signaturePad.getKeyId(), jwtSize);
+
+    // verifyJwt gets the pad passed in and never looks it up
+    authService = new AuthService(null, ObservationRegistry.NOOP);
+  }
+
+  @Benchmark
+  public SignedJWT parse()
+    throws ParseException
+  {
+    return SignedJWT.parse(jwt);
+  }
+
+  @Benchmark
+  public SignedJWT verifyCached()
+  {
+    return authService.verifyJwt(signaturePad, jwt);
+  }
+
+  @Benchmark
+  public SignedJWT verifyCold()
+  {
+    authService.invalidateVerifiers(signaturePad.getUuid());
+    return authService.verifyJwt(signaturePad, jwt);
+  }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * QR code PNG rendering: the 1-bit {@link QrCodePngEncoder} against the
+ * former MatrixToImageWriter path, both including the QR encoding.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QrCodeBenchmark
+{
+  private static final String CONTENT =
+    "http://localhost:8080/admin/validate-new-pad?uuid=759f10c1-155d-4913-b9a9-844b6e2c2f29";
+
+  @Param(
+    {
+      "300", "1024"
+    })
+  public int size;
+
+  private final QRCodeWriter qrWriter = new QRCodeWriter();
+
+  private final Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+
+  @Setup
+  public void setup()
+  {
+    hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+    hints.put(EncodeHintType.MARGIN, 2);
+  }
+
+  @Benchmark
+  public byte[] pngEncoder()
+    throws WriterException
+  {
+    BitMatrix matrix = qrWriter.encode(CONTENT, BarcodeFormat.QR_CODE, 0, 0, hints);
+    int scale = Math.max(1, Math.min(size / matrix.getWidth(), QrCodePngEncoder.MAX_SCALE));
+    return QrCodePngEncoder.encode(matrix, scale);
+  }
+
+  @Benchmark
+  public byte[] matrixToImageWriter()
+    throws WriterException, IOException
+  {
+    BitMatrix matrix = qrWriter.encode(CONTENT, BarcodeFormat.QR_CODE, size, size, hints);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MatrixToImageWriter.writeToStream(matrix, "PNG", out);
+    return out.toByteArray();
+  }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+import l9g.webapp.signaturepaddemo.benchmark.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON round trip of public keys through {@link PublicKeySerializer} and
+ * {@link PublicKeyDeserializer} for every pad key type.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PublicKeyCodecBenchmark
+{
+  @Param(
+    {
+      "RSA", "EC", "ED25519"
+    })
+  public PadKeyType keyType;
+
+  private ObjectMapper objectMapper;
+
+  private PublicKey publicKey;
+
+  private String json;
+
+  @Setup
+  public void setup()
+    throws Exception
+  {
+    BenchmarkSupport.quietLogging();
+    SimpleModule module = new SimpleModule();
+    module.addSerializer(PublicKey.class, new PublicKeySerializer());
+    module.addDeserializer(PublicKey.class, new PublicKeyDeserializer());
+    objectMapper = new ObjectMapper().registerModule(module);
+
+    publicKey = keyType.generateKeyPair().getPublic();
+    json = objectMapper.writeValueAsString(publicKey);
+  }
+
+  @Benchmark
+  public String serialize()
+    throws JsonProcessingException
+  {
+    return objectMapper.writeValueAsString(publicKey);
+  }
+
+  @Benchmark
+  public PublicKey deserialize()
+    throws JsonProcessingException
+  {
+    return objectMapper.readValue(json, PublicKey.class);
+  }
+
+}
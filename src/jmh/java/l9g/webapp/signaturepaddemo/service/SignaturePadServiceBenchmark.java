@@ -0,0 +1,112 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import l9g.webapp.signaturepaddemo.benchmark.BenchmarkSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SignaturePadService} storage: writing a pad, loading it from the
+ * in-memory registry and loading it from disk after an eviction.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SignaturePadServiceBenchmark
+{
+  /** Key type of the stored pads, it determines the size of the JSON file */
+  @Param(
+    {
+      "RSA", "EC"
+    })
+  public PadKeyType keyType;
+
+  private Path storeDir;
+
+  private SignaturePadService signaturePadService;
+
+  private SignaturePad signaturePad;
+
+  @Setup(Level.Trial)
+  public void setup()
+    throws Exception
+  {
+    BenchmarkSupport.quietLogging();
+    storeDir = Files.createTempDirectory("signaturepads-benchmark");
+    signaturePadService = new SignaturePadService(ObservationRegistry.NOOP);
+    BenchmarkSupport.setField(signaturePadService, "storeDir", storeDir.toString());
+    BenchmarkSupport.setField(signaturePadService, "cacheSize", 1000);
+    signaturePadService.init();
+
+    signaturePad = signaturePadService.createNewSignaturePad("benchmark");
+    signaturePad.createPrivateJWK(keyType.generateKeyPair());
+    signaturePad.setValidated(true);
+    signaturePadService.storeSignaturePad(signaturePad);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown()
+    throws IOException
+  {
+    BenchmarkSupport.deleteDirectory(storeDir);
+  }
+
+  @Benchmark
+  public SignaturePad store()
+    throws IOException
+  {
+    signaturePadService.storeSignaturePad(signaturePad);
+    return signaturePad;
+  }
+
+  @Benchmark
+  public SignaturePad loadCached()
+    throws IOException
+  {
+    return signaturePadService.loadSignaturePad(signaturePad.getUuid());
+  }
+
+  @Benchmark
+  public SignaturePad loadFromDisk()
+    throws IOException
+  {
+    signaturePadService.evictSignaturePad(signaturePad.getUuid());
+    return signaturePadService.loadSignaturePad(signaturePad.getUuid());
+  }
+
+}
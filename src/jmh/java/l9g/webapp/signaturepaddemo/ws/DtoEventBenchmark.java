@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.ws;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import l9g.webapp.signaturepaddemo.benchmark.BenchmarkSupport;
+import l9g.webapp.signaturepaddemo.dto.DtoEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.socket.TextMessage;
+
+/**
+ * Serialization of a {@link DtoEvent} with Jackson and into the text frame
+ * sent to the signature pads.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DtoEventBenchmark
+{
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private SignaturePadWebSocketHandler handler;
+
+  private DtoEvent event;
+
+  @Setup
+  public void setup()
+  {
+    BenchmarkSupport.quietLogging();
+    handler = new SignaturePadWebSocketHandler(Runnable::run, 10000, 524288);
+    event = new DtoEvent(DtoEvent.EVENT_SHOW, "{\"card\":\"091600045759\"}");
+  }
+
+  @Benchmark
+  public String serialize()
+    throws JsonProcessingException
+  {
+    return objectMapper.writeValueAsString(event);
+  }
+
+  @Benchmark
+  public TextMessage encode()
+    throws IOException
+  {
+    return handler.encode(event);
+  }
+
+}
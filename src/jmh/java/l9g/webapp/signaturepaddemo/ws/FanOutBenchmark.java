@@ -0,0 +1,229 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.ws;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import l9g.webapp.signaturepaddemo.benchmark.BenchmarkSupport;
+import l9g.webapp.signaturepaddemo.dto.DtoEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Event fan-out of the {@link SignaturePadWebSocketHandler} to 10 up to
+ * 10,000 connected sessions, one session per pad. Sends run on the calling
+ * thread against sessions which only count the messages, so the results
+ * show the cost of the handler itself. Run with the gc profiler to get the
+ * allocation per broadcast.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FanOutBenchmark
+{
+  @Param(
+    {
+      "10", "100", "1000", "10000"
+    })
+  public int sessions;
+
+  private SignaturePadWebSocketHandler handler;
+
+  private final List<CountingSession> connected = new ArrayList<>();
+
+  private String targetPadUuid;
+
+  @Setup(Level.Trial)
+  public void setup()
+    throws Exception
+  {
+    BenchmarkSupport.quietLogging();
+    handler = new SignaturePadWebSocketHandler(Runnable::run, 10000, 524288);
+
+    for(int i = 0; i < sessions; i ++)
+    {
+      CountingSession session = new CountingSession(
+        "session-" + i, UUID.randomUUID().toString());
+      handler.afterConnectionEstablished(session);
+      connected.add(session);
+    }
+
+    targetPadUuid = connected.get(sessions / 2).padUuid;
+  }
+
+  @Benchmark
+  public void fireEventToPad()
+    throws IOException
+  {
+    handler.fireEventToPad(new DtoEvent(DtoEvent.EVENT_SHOW, "benchmark"), targetPadUuid);
+  }
+
+  @Benchmark
+  public void fireEventToAllSessions()
+    throws IOException
+  {
+    handler.fireEventToAllSessions(new DtoEvent(DtoEvent.EVENT_HEARTBEAT));
+  }
+
+  /**
+   * Open session which counts the messages sent to it.
+   */
+  static final class CountingSession implements WebSocketSession
+  {
+    private final String id;
+
+    private final String padUuid;
+
+    private final Map<String, Object> attributes = new HashMap<>();
+
+    private long messages;
+
+    CountingSession(String id, String padUuid)
+    {
+      this.id = id;
+      this.padUuid = padUuid;
+      attributes.put(SignaturePadWebSocketConfig.SIGNATURE_PAD_UUID, padUuid);
+    }
+
+    @Override
+    public String getId()
+    {
+      return id;
+    }
+
+    @Override
+    public URI getUri()
+    {
+      return null;
+    }
+
+    @Override
+    public HttpHeaders getHandshakeHeaders()
+    {
+      return new HttpHeaders();
+    }
+
+    @Override
+    public Map<String, Object> getAttributes()
+    {
+      return attributes;
+    }
+
+    @Override
+    public Principal getPrincipal()
+    {
+      return null;
+    }
+
+    @Override
+    public InetSocketAddress getLocalAddress()
+    {
+      return null;
+    }
+
+    @Override
+    public InetSocketAddress getRemoteAddress()
+    {
+      return null;
+    }
+
+    @Override
+    public String getAcceptedProtocol()
+    {
+      return SignaturePadWebSocketConfig.SIGNATURE_PAD_UUID;
+    }
+
+    @Override
+    public void setTextMessageSizeLimit(int messageSizeLimit)
+    {
+    }
+
+    @Override
+    public int getTextMessageSizeLimit()
+    {
+      return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public void setBinaryMessageSizeLimit(int messageSizeLimit)
+    {
+    }
+
+    @Override
+    public int getBinaryMessageSizeLimit()
+    {
+      return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public List<WebSocketExtension> getExtensions()
+    {
+      return List.of();
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message)
+    {
+      messages ++;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+      return true;
+    }
+
+    @Override
+    public void close()
+    {
+    }
+
+    @Override
+    public void close(CloseStatus status)
+    {
+    }
+
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.bus;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event bus of a single node installation. Messages are delivered
+ * synchronously on the publishing thread.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.event-bus.type", havingValue = "local",
+                       matchIfMissing = true)
+public class InProcessPadEventBus implements PadEventBus
+{
+  private final List<Consumer<PadBusMessage>> listeners =
+    new CopyOnWriteArrayList<>();
+
+  @Override
+  public void publish(PadBusMessage message)
+  {
+    deliver(listeners, message);
+  }
+
+  @Override
+  public void subscribe(Consumer<PadBusMessage> listener)
+  {
+    listeners.add(listener);
+  }
+
+  /**
+   * Hands a message to every listener; a failing listener does not keep the
+   * message from the others.
+   *
+   * @param listeners the listeners
+   * @param message the message
+   */
+  static void deliver(List<Consumer<PadBusMessage>> listeners, PadBusMessage message)
+  {
+    for(Consumer<PadBusMessage> listener : listeners)
+    {
+      try
+      {
+        listener.accept(message);
+      }
+      catch(RuntimeException e)
+      {
+        log.error("event bus listener failed for {} {}",
+          message.type(), message.padUuid(), e);
+      }
+    }
+  }
+
+}
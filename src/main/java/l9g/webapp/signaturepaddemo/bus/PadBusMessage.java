@@ -0,0 +1,63 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.bus;
+
+/**
+ * A message routed between the nodes of a multi-node installation.
+ * Every node applies a message to its own pad sessions, waiting operators
+ * and event streams; nodes without a matching receiver ignore it.
+ *
+ * @param type the kind of message
+ * @param padUuid the unique identifier of the target signature pad
+ * @param value card number for SHOW, result status for RESULT, new state
+ * for STATE
+ * @param sigpng base64 encoded signature image for RESULT
+ * @param subject subject of the received signature for a signed STATE
+ * @param keepUnclaimed hold a RESULT for the next wait if nobody waits
+ * @param eventId event stream ID of a STATE, assigned once by the
+ * publishing node so all nodes number the event alike; 0 otherwise
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record PadBusMessage(
+  Type type,
+  String padUuid,
+  String value,
+  String sigpng,
+  String subject,
+  boolean keepUnclaimed,
+  long eventId
+  )
+{
+  /** Kinds of bus messages */
+  public enum Type
+  {
+    /** Show a signature request on the pad */
+    SHOW,
+    /** Hide the signature interface of the pad */
+    HIDE,
+    /**
+     * Hide the signature interface of the pad because the wait of its
+     * operator expired; unlike HIDE a late signature stays held
+     */
+    TIMEOUT,
+    /** Complete the wait of an operator for the pad */
+    RESULT,
+    /** Publish a state change of the pad to event streams */
+    STATE
+  }
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.bus;
+
+import java.util.function.Consumer;
+
+/**
+ * Delivers pad messages to every node of the installation, including the
+ * publishing node. Implementations are selected with
+ * {@code app.event-bus.type}.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public interface PadEventBus
+{
+  /**
+   * Sends a message to all nodes.
+   *
+   * @param message the message
+   */
+  void publish(PadBusMessage message);
+
+  /**
+   * Registers a listener for the messages delivered to this node.
+   *
+   * @param listener called once per message
+   */
+  void subscribe(Consumer<PadBusMessage> listener);
+
+}
@@ -0,0 +1,598 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.bus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Event bus connecting several nodes over TCP, intended for running a few
+ * instances side by side, e.g. on one machine behind a load balancer.
+ *
+ * <p>Every node listens on {@code app.event-bus.tcp.port} and sends each
+ * published message to all peers listed in {@code app.event-bus.tcp.peers}
+ * (host:port, comma separated) as a length-prefixed JSON frame. Messages are
+ * delivered locally right away; each peer has its own sender thread with a
+ * bounded queue, so an unreachable peer never blocks a request. Received
+ * messages are not forwarded, so the peer lists must form a full mesh.</p>
+ *
+ * <p>The bus trusts every frame it accepts, any sender could complete
+ * signature waits or push events to operators. Without a shared secret the
+ * bus must therefore listen on a loopback address only, which
+ * {@link #init()} enforces. Nodes on different hosts set the same
+ * {@code app.event-bus.tcp.secret}; every connection then starts with a
+ * challenge the connecting node has to answer with its HMAC-SHA256, and no
+ * frame is read before. Every frame carries an HMAC-SHA256 of its JSON as
+ * well and connections sending a frame with a wrong MAC are dropped.
+ * The MAC also covers a random ID of the sending node, a sequence number
+ * increasing per sender and the send time. Frames older than
+ * {@code app.event-bus.tcp.max-age} or not newer than the last frame of
+ * their sender are replays and drop the connection as well, so the node
+ * clocks must be kept in sync. The bus is not encrypted, signature images
+ * cross the network in clear text unless the peers are connected through a
+ * private network or a tunnel.</p>
+ *
+ * <p>A node accepts at most one inbound connection per configured peer,
+ * further connections wait in the listen backlog until one is closed.
+ * Connections idle or stalled for longer than
+ * {@code app.event-bus.tcp.read-timeout} are closed; a sender reconnects
+ * before writing to a connection idle for half that time.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.event-bus.type", havingValue = "tcp")
+public class TcpPadEventBus implements PadEventBus
+{
+  /** Largest accepted frame, signature images included */
+  private static final int MAX_FRAME_SIZE = 8 * 1024 * 1024;
+
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+
+  /** Length of the MAC preceding the JSON of a frame */
+  private static final int MAC_LENGTH = 32;
+
+  /** Length of sender ID, sequence number and send time of an authenticated frame */
+  private static final int HEADER_LENGTH = 3 * 8;
+
+  /** Length of the random challenge opening an authenticated connection */
+  private static final int CHALLENGE_LENGTH = 32;
+
+  /** Prefix of the challenge MAC, so it never equals the MAC of a frame */
+  private static final byte[] CHALLENGE_PREFIX =
+    "event-bus-hello".getBytes(StandardCharsets.US_ASCII);
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private final List<Consumer<PadBusMessage>> listeners =
+    new CopyOnWriteArrayList<>();
+
+  private final List<Peer> peers = new ArrayList<>();
+
+  /** Address the bus listens on */
+  @Value("${app.event-bus.tcp.bind:127.0.0.1}")
+  private String bindAddress;
+
+  /** Port the bus listens on */
+  @Value("${app.event-bus.tcp.port:9701}")
+  private int port;
+
+  /** Other nodes, host:port separated by commas */
+  @Value("${app.event-bus.tcp.peers:}")
+  private List<String> peerAddresses;
+
+  /** Maximum number of messages queued per peer */
+  @Value("${app.event-bus.tcp.queue-capacity:1000}")
+  private int queueCapacity;
+
+  /** Secret shared by all nodes to authenticate frames, empty for none */
+  @Value("${app.event-bus.tcp.secret:}")
+  private String secret;
+
+  /** Maximum age in milliseconds of an accepted authenticated frame */
+  @Value("${app.event-bus.tcp.max-age:30000}")
+  private long maxAge;
+
+  /** Milliseconds an inbound connection may stay silent before it is closed */
+  @Value("${app.event-bus.tcp.read-timeout:60000}")
+  private int readTimeout;
+
+  /** One inbound connection per peer */
+  private Semaphore connectionSlots;
+
+  private SecretKeySpec macKey;
+
+  /** Random ID of this node, so sequence numbers restart with a new sender */
+  private final long senderId = RANDOM.nextLong();
+
+  /** Sequence number of the last authenticated frame sent, guarded by peers */
+  private long sequence;
+
+  /** Last accepted frame per sending node */
+  private final Map<Long, SenderState> senders = new ConcurrentHashMap<>();
+
+  private ServerSocket serverSocket;
+
+  private Thread acceptor;
+
+  private volatile boolean running;
+
+  /**
+   * Sequence number and send time of the last frame accepted from a node.
+   */
+  private record SenderState(long sequence, long timestamp)
+    {
+  }
+
+  /**
+   * A remote node with its own sender thread and lazily opened connection.
+   */
+  private final class Peer
+  {
+    private final String host;
+
+    private final int port;
+
+    private final ThreadPoolExecutor sender;
+
+    private Socket socket;
+
+    private DataOutputStream out;
+
+    /** Time of the last write on the current connection */
+    private long lastWrite;
+
+    Peer(String address)
+    {
+      int colon = address.lastIndexOf(':');
+      if(colon < 1)
+      {
+        throw new IllegalArgumentException("Invalid event bus peer: " + address);
+      }
+      this.host = address.substring(0, colon).trim();
+      this.port = Integer.parseInt(address.substring(colon + 1).trim());
+      this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r ->
+      {
+        Thread thread = new Thread(r, "event-bus-peer-" + host + ":" + this.port);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+
+    void send(byte[] frame)
+    {
+      try
+      {
+        sender.execute(() -> write(frame));
+      }
+      catch(RejectedExecutionException e)
+      {
+        log.warn("event bus queue to {}:{} full, message dropped", host, port);
+      }
+    }
+
+    /**
+     * Writes a frame, reconnecting once if the connection has been lost.
+     * A connection idle for half the read timeout is replaced first, the
+     * peer may already have closed it.
+     */
+    private void write(byte[] frame)
+    {
+      long now = System.currentTimeMillis();
+      if(socket != null && readTimeout > 0 && now - lastWrite > readTimeout / 2)
+      {
+        close();
+      }
+
+      for(int attempt = 0; attempt < 2; attempt ++)
+      {
+        try
+        {
+          if(socket == null)
+          {
+            connect();
+          }
+          out.writeInt(frame.length);
+          out.write(frame);
+          out.flush();
+          lastWrite = now;
+          return;
+        }
+        catch(IOException e)
+        {
+          log.debug("event bus send to {}:{} failed: {}", host, port, e.getMessage());
+          close();
+        }
+      }
+      log.warn("event bus peer {}:{} unreachable, message dropped", host, port);
+    }
+
+    /**
+     * Opens the connection and answers the challenge of the peer.
+     */
+    private void connect()
+      throws IOException
+    {
+      socket = new Socket();
+      socket.connect(new InetSocketAddress(host, port), 2000);
+      socket.setTcpNoDelay(true);
+      socket.setSoTimeout(readTimeout);
+      out = new DataOutputStream(
+        new BufferedOutputStream(socket.getOutputStream()));
+      if(macKey != null)
+      {
+        byte[] challenge = socket.getInputStream().readNBytes(CHALLENGE_LENGTH);
+        if(challenge.length < CHALLENGE_LENGTH)
+        {
+          throw new EOFException();
+        }
+        out.write(challengeResponse(challenge));
+        out.flush();
+      }
+      log.info("event bus connected to {}:{}", host, port);
+    }
+
+    void close()
+    {
+      if(socket != null)
+      {
+        try
+        {
+          socket.close();
+        }
+        catch(IOException e)
+        {
+          // ignore, connection is dropped anyway
+        }
+        socket = null;
+        out = null;
+      }
+    }
+
+  }
+
+  /**
+   * Opens the listening socket and prepares the peer connections.
+   *
+   * @throws IOException if the port can not be bound
+   * @throws IllegalStateException if the bus listens on a non-loopback
+   * address without a secret
+   */
+  @PostConstruct
+  public void init()
+    throws IOException
+  {
+    InetAddress bindInetAddress = InetAddress.getByName(bindAddress);
+    if(secret != null && ! secret.isBlank())
+    {
+      macKey = new SecretKeySpec(
+        secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM);
+    }
+    else if( ! bindInetAddress.isLoopbackAddress())
+    {
+      throw new IllegalStateException("TCP event bus on " + bindAddress
+        + " requires app.event-bus.tcp.secret, or bind it to a loopback address");
+    }
+
+    for(String address : peerAddresses)
+    {
+      if( ! address.isBlank())
+      {
+        peers.add(new Peer(address));
+      }
+    }
+    connectionSlots = new Semaphore(peers.size());
+
+    serverSocket = new ServerSocket(port, 50, bindInetAddress);
+    running = true;
+    acceptor = new Thread(this::acceptConnections, "event-bus-accept");
+    acceptor.setDaemon(true);
+    acceptor.start();
+
+    log.info("TCP event bus listening on {}:{}, peers {}, {}",
+      bindAddress, port, peerAddresses,
+      (macKey != null) ? "authenticated" : "unauthenticated");
+  }
+
+  /**
+   * Closes the listening socket and all peer connections.
+   *
+   * @throws IOException if closing the listening socket fails
+   */
+  @PreDestroy
+  public void close()
+    throws IOException
+  {
+    running = false;
+    serverSocket.close();
+    acceptor.interrupt();
+    peers.forEach(peer -> peer.sender.shutdownNow());
+    peers.forEach(Peer::close);
+  }
+
+  @Override
+  public void publish(PadBusMessage message)
+  {
+    InProcessPadEventBus.deliver(listeners, message);
+
+    if( ! peers.isEmpty())
+    {
+      byte[] json;
+      try
+      {
+        json = objectMapper.writeValueAsBytes(message);
+      }
+      catch(IOException e)
+      {
+        log.error("can't encode event bus message", e);
+        return;
+      }
+
+      if(macKey == null)
+      {
+        peers.forEach(peer -> peer.send(json));
+        return;
+      }
+
+      // numbered and queued under one lock, so every peer receives the
+      // frames in sequence order
+      synchronized(peers)
+      {
+        ByteBuffer frame = ByteBuffer.allocate(MAC_LENGTH + HEADER_LENGTH + json.length);
+        frame.position(MAC_LENGTH);
+        frame.putLong(senderId);
+        frame.putLong(++ sequence);
+        frame.putLong(System.currentTimeMillis());
+        frame.put(json);
+        frame.put(0, mac(frame.array(), MAC_LENGTH, HEADER_LENGTH + json.length));
+        peers.forEach(peer -> peer.send(frame.array()));
+      }
+    }
+  }
+
+  @Override
+  public void subscribe(Consumer<PadBusMessage> listener)
+  {
+    listeners.add(listener);
+  }
+
+  private byte[] challengeResponse(byte[] challenge)
+  {
+    byte[] data = Arrays.copyOf(CHALLENGE_PREFIX,
+      CHALLENGE_PREFIX.length + challenge.length);
+    System.arraycopy(challenge, 0, data, CHALLENGE_PREFIX.length, challenge.length);
+    return mac(data, 0, data.length);
+  }
+
+  private byte[] mac(byte[] data, int offset, int length)
+  {
+    try
+    {
+      Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(macKey);
+      mac.update(data, offset, length);
+      return mac.doFinal();
+    }
+    catch(GeneralSecurityException e)
+    {
+      throw new IllegalStateException("Event bus MAC not available", e);
+    }
+  }
+
+  /**
+   * Rejects a replayed frame: one sent longer than the maximum age ago or
+   * not newer than the last accepted frame of its sender.
+   *
+   * @throws IOException if the frame is a replay
+   */
+  private void checkFresh(long sender, long frameSequence, long timestamp)
+    throws IOException
+  {
+    long now = System.currentTimeMillis();
+    if(Math.abs(now - timestamp) > maxAge)
+    {
+      throw new IOException("Stale event bus frame, sent at " + timestamp
+        + " (check the clocks of the nodes)");
+    }
+
+    boolean[] accepted = new boolean[1];
+    senders.compute(sender, (key, last) ->
+    {
+      if(last != null && frameSequence <= last.sequence())
+      {
+        return last;
+      }
+      accepted[0] = true;
+      return new SenderState(frameSequence, timestamp);
+    });
+
+    if( ! accepted[0])
+    {
+      throw new IOException("Duplicate event bus frame " + frameSequence);
+    }
+
+    // senders silent for longer than the maximum age can't be replayed any more
+    senders.values().removeIf(state -> now - state.timestamp() > 2 * maxAge);
+  }
+
+  /**
+   * Accepts a connection whenever a slot is free, until the bus is closed.
+   */
+  private void acceptConnections()
+  {
+    while(running)
+    {
+      try
+      {
+        connectionSlots.acquire();
+      }
+      catch(InterruptedException e)
+      {
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      try
+      {
+        Socket socket = serverSocket.accept();
+        Thread reader = new Thread(() ->
+        {
+          try
+          {
+            readMessages(socket);
+          }
+          finally
+          {
+            connectionSlots.release();
+          }
+        }, "event-bus-reader-" + socket.getRemoteSocketAddress());
+        reader.setDaemon(true);
+        reader.start();
+      }
+      catch(IOException e)
+      {
+        connectionSlots.release();
+        if(running)
+        {
+          log.error("event bus accept failed", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sends a random challenge and checks the MAC the peer answers with.
+   *
+   * @throws IOException if the answer is missing or wrong
+   */
+  private void authenticate(Socket socket, DataInputStream in)
+    throws IOException
+  {
+    byte[] challenge = new byte[CHALLENGE_LENGTH];
+    RANDOM.nextBytes(challenge);
+    socket.getOutputStream().write(challenge);
+    socket.getOutputStream().flush();
+
+    byte[] response = in.readNBytes(MAC_LENGTH);
+    if(response.length < MAC_LENGTH)
+    {
+      throw new EOFException();
+    }
+    if( ! MessageDigest.isEqual(response, challengeResponse(challenge)))
+    {
+      throw new IOException("Event bus connection with invalid challenge response");
+    }
+  }
+
+  private void readMessages(Socket socket)
+  {
+    log.info("event bus peer connected from {}", socket.getRemoteSocketAddress());
+    try(socket;
+      DataInputStream in = new DataInputStream(
+        new BufferedInputStream(socket.getInputStream())))
+    {
+      socket.setSoTimeout(readTimeout);
+      if(macKey != null)
+      {
+        authenticate(socket, in);
+      }
+
+      while(running)
+      {
+        int length = in.readInt();
+        if(length < 0 || length > MAX_FRAME_SIZE)
+        {
+          throw new IOException("Invalid event bus frame size " + length);
+        }
+        byte[] frame = in.readNBytes(length);
+        if(frame.length < length)
+        {
+          throw new EOFException();
+        }
+        int offset = 0;
+        if(macKey != null)
+        {
+          if(length < MAC_LENGTH + HEADER_LENGTH || ! MessageDigest.isEqual(
+            Arrays.copyOf(frame, MAC_LENGTH),
+            mac(frame, MAC_LENGTH, length - MAC_LENGTH)))
+          {
+            throw new IOException("Event bus frame with invalid MAC");
+          }
+          ByteBuffer header = ByteBuffer.wrap(frame, MAC_LENGTH, HEADER_LENGTH);
+          checkFresh(header.getLong(), header.getLong(), header.getLong());
+          offset = MAC_LENGTH + HEADER_LENGTH;
+        }
+        InProcessPadEventBus.deliver(listeners, objectMapper.readValue(
+          frame, offset, length - offset, PadBusMessage.class));
+      }
+    }
+    catch(EOFException | SocketException e)
+    {
+      log.info("event bus peer {} disconnected", socket.getRemoteSocketAddress());
+    }
+    catch(SocketTimeoutException e)
+    {
+      log.info("event bus peer {} idle, connection closed",
+        socket.getRemoteSocketAddress());
+    }
+    catch(IOException e)
+    {
+      log.error("event bus connection from {} failed",
+        socket.getRemoteSocketAddress(), e);
+    }
+  }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.concurrent.TimeUnit;
+import l9g.webapp.signaturepaddemo.controller.api.PadEventStreamService;
+import l9g.webapp.signaturepaddemo.controller.api.PendingSignatureRegistry;
+import l9g.webapp.signaturepaddemo.service.CardIndexUserDirectory;
+import l9g.webapp.signaturepaddemo.service.PhotoProcessingService;
+import l9g.webapp.signaturepaddemo.service.SignaturePadKeyPool;
+import l9g.webapp.signaturepaddemo.service.SignaturePadService;
+import l9g.webapp.signaturepaddemo.ws.HeartbeatScheduler;
+import l9g.webapp.signaturepaddemo.ws.SignaturePadWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the gauges and counters the services already keep as
+ * Micrometer meters, exposed by the actuator Prometheus endpoint.
+ *
+ * <p>The timers of pad authentication, JWT verification, signature pad
+ * storage, signed JWT writes and QR code rendering are recorded by
+ * observations in the services themselves.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SignaturePadMetrics implements MeterBinder
+{
+  private final SignaturePadWebSocketHandler webSocketHandler;
+
+  private final PendingSignatureRegistry pendingSignatureRegistry;
+
+  private final PadEventStreamService padEventStreamService;
+
+  private final SignaturePadService signaturePadService;
+
+  private final SignaturePadKeyPool signaturePadKeyPool;
+
+  private final PhotoProcessingService photoProcessingService;
+
+  private final ObjectProvider<HeartbeatScheduler> heartbeatScheduler;
+
+  private final ObjectProvider<CardIndexUserDirectory> cardIndexUserDirectory;
+
+  @Override
+  public void bindTo(@NonNull MeterRegistry registry)
+  {
+    log.debug("bindTo");
+
+    // WebSocket sessions and fan-out
+    Gauge.builder("signaturepad.websocket.sessions", webSocketHandler,
+      SignaturePadWebSocketHandler::getSessionCount)
+      .description("Connected signature pad sessions")
+      .register(registry);
+    FunctionTimer.builder("signaturepad.websocket.send", webSocketHandler,
+      h -> h.getFanOutStatistics().sent(),
+      h -> h.getFanOutStatistics().sendNanos(), TimeUnit.NANOSECONDS)
+      .description("Outbound messages from queueing to completed send")
+      .register(registry);
+    FunctionCounter.builder("signaturepad.websocket.send.failures", webSocketHandler,
+      h -> h.getFanOutStatistics().failed())
+      .description("Outbound messages which could not be queued or sent")
+      .register(registry);
+    FunctionCounter.builder("signaturepad.websocket.evictions", webSocketHandler,
+      h -> h.getFanOutStatistics().evictions())
+      .description("Sessions closed as slow consumers")
+      .register(registry);
+
+    // Signature waits and operator event streams
+    Gauge.builder("signaturepad.signature.waits.pending", pendingSignatureRegistry,
+      r -> r.getStatistics().pending())
+      .description("Requests waiting for a signature")
+      .register(registry);
+    FunctionCounter.builder("signaturepad.signature.waits.expired", pendingSignatureRegistry,
+      r -> r.getStatistics().expired())
+      .description("Signature waits which timed out")
+      .register(registry);
+    FunctionCounter.builder("signaturepad.signature.waits.rejected", pendingSignatureRegistry,
+      r -> r.getStatistics().rejected())
+      .description("Signature waits rejected at the capacity limit")
+      .register(registry);
+    Gauge.builder("signaturepad.events.subscriptions", padEventStreamService,
+      PadEventStreamService::getSubscriptionCount)
+      .description("Open pad state event streams")
+      .register(registry);
+
+    // Signature pad registry
+    Gauge.builder("signaturepad.cache.size", signaturePadService,
+      s -> s.getCacheStatistics().size())
+      .description("Signature pads in the in-memory registry")
+      .register(registry);
+    FunctionCounter.builder("signaturepad.cache.hits", signaturePadService,
+      s -> s.getCacheStatistics().hits())
+      .register(registry);
+    FunctionCounter.builder("signaturepad.cache.misses", signaturePadService,
+      s -> s.getCacheStatistics().misses())
+      .register(registry);
+    FunctionCounter.builder("signaturepad.cache.evictions", signaturePadService,
+      s -> s.getCacheStatistics().evictions())
+      .register(registry);
+
+    // Key pool
+    Gauge.builder("signaturepad.keypool.depth", signaturePadKeyPool,
+      p -> p.getStatistics().depth())
+      .description("Pre-generated key pairs ready for new signature pads")
+      .register(registry);
+    FunctionTimer.builder("signaturepad.keypool.generation", signaturePadKeyPool,
+      p -> p.getStatistics().generated() + p.getStatistics().generatedInline(),
+      p -> p.getStatistics().generationNanos(), TimeUnit.NANOSECONDS)
+      .description("Key pair generation")
+      .register(registry);
+    FunctionCounter.builder("signaturepad.keypool.inline", signaturePadKeyPool,
+      p -> p.getStatistics().generatedInline())
+      .description("Key pairs generated on the request thread")
+      .register(registry);
+
+    // Photo post-processing
+    Gauge.builder("signaturepad.photo.queue", photoProcessingService,
+      p -> p.getStatistics().queued())
+      .description("Photo jobs waiting for a worker")
+      .register(registry);
+    FunctionTimer.builder("signaturepad.photo.processing", photoProcessingService,
+      p -> p.getStatistics().completed(),
+      p -> p.getStatistics().processingNanos(), TimeUnit.NANOSECONDS)
+      .register(registry);
+    FunctionCounter.builder("signaturepad.photo.failures", photoProcessingService,
+      p -> p.getStatistics().failed())
+      .register(registry);
+
+    heartbeatScheduler.ifAvailable(scheduler ->
+      Gauge.builder("signaturepad.heartbeat.duration", scheduler,
+        s -> s.getLastRunNanos() / 1e9)
+        .description("Duration of the last heartbeat run")
+        .baseUnit("seconds")
+        .register(registry));
+
+    cardIndexUserDirectory.ifAvailable(directory ->
+      Gauge.builder("signaturepad.cardindex.records", directory,
+        d -> d.getStatistics().records())
+        .description("Card numbers in the card index")
+        .register(registry));
+  }
+
+}
@@ -18,7 +18,11 @@ package l9g.webapp.signaturepaddemo.controller;
 import java.io.IOException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Locale;
+import l9g.webapp.signaturepaddemo.controller.api.AuthService;
+import l9g.webapp.signaturepaddemo.controller.api.ReverificationProgress;
+import l9g.webapp.signaturepaddemo.controller.api.SignatureReverificationService;
 import l9g.webapp.signaturepaddemo.service.SignaturePad;
+import l9g.webapp.signaturepaddemo.service.SignaturePadKeyPool;
 import l9g.webapp.signaturepaddemo.service.SignaturePadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -30,6 +34,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -48,6 +53,15 @@ public class AdminController
   /** Service for managing signature pad operations and data persistence */
   private final SignaturePadService signaturePadService;
 
+  /** Service for authentication and authorization operations */
+  private final AuthService authService;
+
+  /** Pool of pre-generated signature pad key pairs */
+  private final SignaturePadKeyPool signaturePadKeyPool;
+
+  /** Bulk re-verification of the stored signatures */
+  private final SignatureReverificationService signatureReverificationService;
+
   /**
    * Displays the registration form for creating a new signature pad.
    * Provides the interface for administrators to initiate the signature pad setup process.
@@ -134,9 +148,11 @@ public class AdminController
       );
     }
 
-    // Generate private JWK for the signature pad and store it
-    String privateJwk = signaturePad.createPrivateJWK();
+    // Install a pre-generated key pair on a copy and store the signature pad
+    signaturePad = signaturePad.copy();
+    String privateJwk = signaturePad.createPrivateJWK(signaturePadKeyPool.take());
     signaturePadService.storeSignaturePad(signaturePad);
+    authService.invalidateVerifiers(signaturePad.getUuid());
     model.addAttribute("locale", locale.toString());
     model.addAttribute("pad", signaturePad);
     model.addAttribute("padJwkJson", privateJwk);
@@ -184,4 +200,58 @@ public class AdminController
     return "wait-for-response";
   }
 
+  /**
+   * Displays the progress of the last re-verification of all stored
+   * signatures and a button to start a new one.
+   *
+   * @param model Spring MVC model for passing data to the view
+   * @return the name of the signature-audit template to render
+   */
+  @GetMapping("/signature-audit")
+  public String signatureAudit(Model model)
+  {
+    log.debug("signature-audit");
+    Locale locale = LocaleContextHolder.getLocale();
+    model.addAttribute("locale", locale.toString());
+    model.addAttribute("progress", signatureReverificationService.getProgress());
+    return "signature-audit";
+  }
+
+  /**
+   * Starts the re-verification of all stored signatures in the background.
+   * A running job is not restarted.
+   *
+   * @return redirect to the progress page
+   * @throws IOException if the report directory can not be created
+   */
+  @PostMapping("/signature-audit")
+  public String startSignatureAudit()
+    throws IOException
+  {
+    log.debug("start signature-audit");
+    signatureReverificationService.start();
+    return "redirect:/admin/signature-audit";
+  }
+
+  /**
+   * Returns the progress of the current or last re-verification job.
+   *
+   * @return the job progress
+   * @throws ResponseStatusException if no job has been started yet
+   */
+  @GetMapping("/signature-audit/progress")
+  @ResponseBody
+  public ReverificationProgress signatureAuditProgress()
+  {
+    ReverificationProgress progress = signatureReverificationService.getProgress();
+    if(progress == null)
+    {
+      throw new ResponseStatusException(
+        HttpStatus.NOT_FOUND,
+        "No signature re-verification started!"
+      );
+    }
+    return progress;
+  }
+
 }
@@ -22,7 +22,6 @@ import java.util.Locale;
 import l9g.webapp.signaturepaddemo.service.SignaturePad;
 import l9g.webapp.signaturepaddemo.service.SignaturePadService;
 import l9g.webapp.signaturepaddemo.ws.SignaturePadSession;
-import l9g.webapp.signaturepaddemo.ws.SignaturePadWebSocketConfig;
 import l9g.webapp.signaturepaddemo.ws.SignaturePadWebSocketHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -78,13 +77,9 @@ public class HomeController
   {
     final ArrayList<SignaturePadSession> list = new ArrayList<>();
 
-    // Iterate through all active WebSocket sessions
-    signaturePadWebSocketHandler.getSessionsBySessionId().forEach((id, session) ->
+    // Iterate through a snapshot of all active WebSocket sessions
+    signaturePadWebSocketHandler.getSessionSnapshot().forEach((id, padUuid) ->
     {
-      // Extract signature pad UUID from session attributes
-      String padUuid = (String)session.getAttributes()
-        .get(SignaturePadWebSocketConfig.SIGNATURE_PAD_UUID);
-
       // Only process sessions with valid signature pad UUIDs
       if(padUuid != null &&  ! padUuid.isEmpty())
       {
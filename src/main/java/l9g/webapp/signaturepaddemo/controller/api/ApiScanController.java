@@ -15,6 +15,13 @@
  */
 package l9g.webapp.signaturepaddemo.controller.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import l9g.webapp.signaturepaddemo.service.PhotoProcessingService;
+import l9g.webapp.signaturepaddemo.service.PhotoStorageService;
+import l9g.webapp.signaturepaddemo.service.StoredPhoto;
+import l9g.webapp.signaturepaddemo.service.UserDirectoryService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -31,11 +38,20 @@ import org.springframework.web.multipart.MultipartFile;
  * @author Thorsten Ludewig (t.ludewig@gmail.com)
  */
 @Slf4j
+@RequiredArgsConstructor
 @RestController
 @RequestMapping(path = "/api/v1/signature-pad",
                 produces = MediaType.APPLICATION_JSON_VALUE)
 public class ApiScanController
 {
+  /** Card holder lookup */
+  private final UserDirectoryService userDirectoryService;
+
+  /** Store for the card photos */
+  private final PhotoStorageService photoStorageService;
+
+  /** Background producer of the photo derivatives */
+  private final PhotoProcessingService photoProcessingService;
 
   /**
    * DTO für den Barcode-Scan-Request
@@ -99,11 +115,12 @@ public class ApiScanController
 
   @PostMapping(path = "/scan", consumes = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<ApiResponse> scanCard(@RequestBody ScanRequest request)
+    throws IOException
   {
     String cardNumber = request.getCardNumber();
     log.debug("Gescannte Kartennummer: '{}'", cardNumber);
 
-    if (cardNumber == null || !cardNumber.equals("091600045759"))
+    if ( ! userDirectoryService.isKnownCard(cardNumber))
     {
       log.debug("Card not found");
       return ResponseEntity
@@ -116,18 +133,71 @@ public class ApiScanController
       .ok(new ApiResponse("OK", "Kartennummer erhalten"));
   }
 
+  /**
+   * Stores a photo of the front or back of a scanned card. The upload is
+   * streamed into the photo store; size and concurrency are already checked
+   * by the {@link PhotoUploadFilter}.
+   *
+   * @param cardNumber the scanned card number
+   * @param side front or back
+   * @param file the photo
+   * @return status response
+   * @throws IOException if the photo can not be stored
+   */
   @PostMapping(path = "/photo", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
   public ResponseEntity<ApiResponse> uploadPhoto(
     @RequestParam("cardNumber") String cardNumber,
     @RequestParam("side") String side,
     @RequestParam("file") MultipartFile file
   )
+    throws IOException
   {
-    // TODO: hier Foto und cardNumber + side verarbeiten (z.B. abspeichern)
-    String filename = file.getOriginalFilename();
-    long size = file.getSize();
-    System.out.printf("Kartennummer=%s, Seite=%s, Datei=%s (%d Bytes)%n",
-      cardNumber, side, filename, size);
+    log.debug("Photo upload: card={}, side={}, file={} ({} bytes)",
+      cardNumber, side, file.getOriginalFilename(), file.getSize());
+
+    if( ! userDirectoryService.isKnownCard(cardNumber))
+    {
+      return ResponseEntity
+        .status(HttpStatus.NOT_FOUND)
+        .body(new ApiResponse("ERROR", "Card not found"));
+    }
+
+    if(file.getSize() > photoStorageService.getMaxSize())
+    {
+      return ResponseEntity
+        .status(HttpStatus.PAYLOAD_TOO_LARGE)
+        .body(new ApiResponse("ERROR", "Photo too large"));
+    }
+
+    if( ! photoStorageService.isSupportedContentType(file.getContentType()))
+    {
+      return ResponseEntity
+        .status(HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+        .body(new ApiResponse("ERROR", "Unsupported photo format"));
+    }
+
+    StoredPhoto photo;
+
+    try(InputStream in = file.getInputStream())
+    {
+      photo = photoStorageService.storePhoto(
+        cardNumber, side, file.getContentType(), in);
+    }
+    catch(IllegalArgumentException e)
+    {
+      return ResponseEntity
+        .status(HttpStatus.BAD_REQUEST)
+        .body(new ApiResponse("ERROR", e.getMessage()));
+    }
+    catch(PhotoStorageService.PhotoTooLargeException e)
+    {
+      return ResponseEntity
+        .status(HttpStatus.PAYLOAD_TOO_LARGE)
+        .body(new ApiResponse("ERROR", "Photo too large"));
+    }
+
+    // the original is durable, thumbnails are produced in the background
+    photoProcessingService.submit(photo);
 
     return ResponseEntity
       .status(HttpStatus.CREATED)
@@ -16,43 +16,50 @@
  */
 package l9g.webapp.signaturepaddemo.controller.api;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
-import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.QRCodeWriter;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetKeyPair;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.SignedJWT;
-import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
 import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import l9g.webapp.signaturepaddemo.service.SignatureBlobService;
 import l9g.webapp.signaturepaddemo.service.SignaturePad;
 import l9g.webapp.signaturepaddemo.service.SignaturePadService;
 import l9g.webapp.signaturepaddemo.service.SignedJwtService;
-import l9g.webapp.signaturepaddemo.dto.DtoEvent;
-import l9g.webapp.signaturepaddemo.ws.SignaturePadWebSocketHandler;
+import l9g.webapp.signaturepaddemo.service.StrokeRenderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -75,21 +82,32 @@ public class ApiSignaturePadController
   /** Service for managing signature pad operations and data persistence */
   private final SignaturePadService signaturePadService;
 
-  /** WebSocket handler for real-time communication with signature pad devices */
-  private final SignaturePadWebSocketHandler signaturePadWebSocketHandler;
-
   /** Service for managing signed JWT operations and storage */
   private final SignedJwtService signedJwtService;
 
   /** Service for authentication and authorization operations */
   private final AuthService authService;
 
-  /** 
-   * Map storing deferred results for asynchronous signature requests.
-   * Key: signature pad UUID, Value: deferred result waiting for response
-   */
-  private final Map<String, DeferredResult<ResponsePayload>> waitingRequests =
-    new ConcurrentHashMap<>();
+  /** Content-addressed store for binary signature images */
+  private final SignatureBlobService signatureBlobService;
+
+  /** Cached QR code renderer */
+  private final QrCodeService qrCodeService;
+
+  /** On-demand renderer for stroke-vector signatures */
+  private final StrokeRenderService strokeRenderService;
+
+  /** Size-bounded reader for signature JWT request bodies */
+  private final SignatureSubmissionReader signatureSubmissionReader;
+
+  /** Server-Sent Events stream of pad state changes */
+  private final PadEventStreamService padEventStreamService;
+
+  /** Routes pad commands and results to the node holding the receiver */
+  private final PadEventRouter padEventRouter;
+
+  /** Operators waiting for a signature, with timeouts and capacity limit */
+  private final PendingSignatureRegistry pendingSignatureRegistry;
 
   /** Base URL of the application for generating absolute URLs */
   @Value("${app.base-url}")
@@ -102,10 +120,11 @@ public class ApiSignaturePadController
   /**
    * Establishes a long-polling connection to wait for signature responses.
    * Creates a deferred result that will be completed when a signature is captured
-   * or when the request times out.
+   * or when the request times out. A newer wait for the same pad cancels this one.
    * 
    * @param padUuid the unique identifier of the signature pad
    * @return deferred result that will contain the signature response
+   * @throws ResponseStatusException 503 if too many operators are waiting
    */
   @GetMapping("/wait-for-response")
   @ResponseBody
@@ -113,74 +132,93 @@ public class ApiSignaturePadController
   {
     log.debug("waitForResponse {}", padUuid);
 
-    // Cancel any existing deferred request for this signature pad
-    DeferredResult<ResponsePayload> oldDeferred = waitingRequests.get(padUuid);
+    // runs at most once and only while this wait is still the active one
+    PendingSignatureRegistry.PendingSignature wait =
+      pendingSignatureRegistry.register(padUuid, signaturePadTimeout, () ->
+      {
+        log.debug("sending hide message");
+        // Hide signature pad interface on timeout, keeping a late signature
+        padEventRouter.timeout(padUuid);
+        padEventRouter.state(padUuid, PadEventStreamService.STATE_TIMEOUT, null);
+      });
+
+    log.debug("waitForResponse - done");
+    return wait.getDeferred();
+  }
+
+  /**
+   * Opens a Server-Sent Events stream of the state changes of one or more
+   * signature pads. Unlike {@link #waitForResponse(String)} the stream stays
+   * open across signature requests and any number of operators can follow
+   * the same pad. A reconnecting browser sends the Last-Event-ID header and
+   * receives the events it has missed.
+   * 
+   * @param padUuids the unique identifiers of the signature pads to follow
+   * @param lastEventId ID of the last received event when resuming
+   * @return the event stream
+   */
+  @GetMapping(path = "/events",
+              produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter events(
+    @RequestParam(name = "uuid") List<String> padUuids,
+    @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId
+  )
+  {
+    log.debug("events {} (Last-Event-ID {})", padUuids, lastEventId);
 
-    if(oldDeferred != null)
+    if(padUuids.isEmpty()
+      || padUuids.size() > PadEventStreamService.MAX_PADS_PER_SUBSCRIPTION)
     {
-      oldDeferred.setResult(new ResponsePayload("cancel", null));
-      waitingRequests.remove(padUuid);
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Between 1 and " + PadEventStreamService.MAX_PADS_PER_SUBSCRIPTION
+        + " signature pads per stream"
+      );
     }
 
-    // Create new deferred result with configured timeout
-    DeferredResult<ResponsePayload> deferred = new DeferredResult<>(signaturePadTimeout);
-
-    // Configure timeout behavior
-    deferred.onTimeout(() ->
+    Long resumeAfter = null;
+    if(lastEventId != null &&  ! lastEventId.isBlank())
     {
-      log.warn("Timeout bei padUuid={}", padUuid);
       try
       {
-        // Check if this deferred result is still the active one
-        DeferredResult<ResponsePayload> checkDeferred = waitingRequests.get(padUuid);
-        if(checkDeferred != null)
-        {
-          if(checkDeferred.equals(deferred))
-          {
-            log.debug("sending hide message");
-            hide(padUuid); // Hide signature pad interface on timeout
-          }
-          else
-          {
-            log.debug("checkDeferred != deferred");
-          }
-        }
-        else
-        {
-          log.debug("checkDeferred == null");
-        }
+        resumeAfter = Long.valueOf(lastEventId.trim());
       }
-      catch(IOException ex)
+      catch(NumberFormatException e)
       {
-        log.error("hide signature pad", ex);
+        throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Invalid Last-Event-ID"
+        );
       }
-      ResponsePayload payload = new ResponsePayload("timeout", null);
-      deferred.setResult(payload);
-    });
-
-    // Clean up when request completes
-    deferred.onCompletion(() -> waitingRequests.remove(padUuid));
-    waitingRequests.put(padUuid, deferred);
+    }
 
-    log.debug("waitForResponse - done");
-    return deferred;
+    return padEventStreamService.subscribe(
+      new LinkedHashSet<>(padUuids), resumeAfter);
   }
 
   /**
    * Generates a QR code image for signature pad connection.
    * Creates a QR code containing the validation URL that signature pads can scan
-   * to establish connection with the system.
+   * to establish connection with the system. Rendered images are cached and
+   * served with a strong ETag, so repeated requests are answered with 304.
    * 
    * @param uuid the unique identifier of the signature pad
-   * @param response HTTP response to write the QR code image to
-   * @throws IOException if QR code generation or response writing fails
+   * @param format the output format, "png" or "svg"
+   * @param size width and height of the image in pixels
+   * @param webRequest the current request, used for conditional GET handling
+   * @return the QR code image or null if the client copy is still valid
    */
-  @GetMapping(path = "/connect-qrcode", produces = MediaType.IMAGE_PNG_VALUE)
-  public void connectQrcode(
+  @GetMapping(path = "/connect-qrcode",
+              produces =
+              {
+                MediaType.IMAGE_PNG_VALUE, "image/svg+xml"
+              })
+  public ResponseEntity<byte[]> connectQrcode(
     @RequestParam("uuid") String uuid,
-    HttpServletResponse response
+    @RequestParam(name = "format", defaultValue = "png") String format,
+    @RequestParam(name = "size", defaultValue = "300") int size,
+    WebRequest webRequest
   )
-    throws IOException
   {
     // Construct the validation URL for the QR code
     String targetUrl = appBaseUrl
@@ -188,31 +226,34 @@ public class ApiSignaturePadController
       + "?uuid="
       + uuid;
 
-    log.debug("Generating QR code for URL: {}", targetUrl);
-
-    int width = 300;
-    int height = 300;
-
-    // Configure QR code generation parameters
-    Map<EncodeHintType, Object> hints = new HashMap<>();
-    hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-    hints.put(EncodeHintType.MARGIN, 2);
+    QrCodeService.QrCodeImage image;
 
     try
     {
-      // Generate QR code and write to response
-      QRCodeWriter qrWriter = new QRCodeWriter();
-      BitMatrix bitMatrix = qrWriter.encode(targetUrl, BarcodeFormat.QR_CODE, width, height, hints);
-
-      response.setContentType(MediaType.IMAGE_PNG_VALUE);
-      MatrixToImageWriter.writeToStream(bitMatrix, "PNG", response.getOutputStream());
-      response.getOutputStream().flush();
+      image = qrCodeService.getQrCode(targetUrl, size,
+        QrCodeService.Format.valueOf(format.toUpperCase()));
+    }
+    catch(IllegalArgumentException e)
+    {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
     }
     catch(WriterException e)
     {
       log.error("Failed to generate QR code", e);
-      response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "QR code generation failed");
+      throw new ResponseStatusException(
+        HttpStatus.INTERNAL_SERVER_ERROR, "QR code generation failed");
     }
+
+    if(webRequest.checkNotModified(image.etag()))
+    {
+      return null;
+    }
+
+    return ResponseEntity.ok()
+      .eTag(image.etag())
+      .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+      .contentType(image.mediaType())
+      .body(image.data());
   }
 
   /**
@@ -221,7 +262,8 @@ public class ApiSignaturePadController
    * in the system, enabling it for signature operations.
    * 
    * @param padUuid the unique identifier of the signature pad
-   * @param signatureJwt the validation JWT containing public key and environment info
+   * @param request the HTTP request carrying the validation JWT containing
+   *                public key and environment info
    * @throws IOException if signature pad data access fails
    * @throws ParseException if JWT parsing fails
    * @throws ResponseStatusException if validation fails or pad not found
@@ -231,42 +273,50 @@ public class ApiSignaturePadController
                produces = MediaType.APPLICATION_JSON_VALUE)
   public void validate(
     @RequestHeader("SIGNATURE_PAD_UUID") String padUuid,
-    @RequestBody String signatureJwt
+    HttpServletRequest request
   )
     throws IOException, ParseException
   {
     log.debug("validate called");
-    log.debug("Received JWT length: {}", signatureJwt.length());
 
-    // Authenticate signature pad and verify JWT
+    // Authenticate signature pad before reading the body
     SignaturePad signaturePad = authService.authCheck(padUuid, false);
+
+    String signatureJwt = signatureSubmissionReader.readCompactJwt(request);
+    log.debug("Received JWT length: {}", signatureJwt.length());
+
     SignedJWT signedJWT = authService.verifyJwt(signaturePad, signatureJwt);
 
     try
     {
+      SignatureSubmission submission = SignatureSubmission.of(signedJWT);
+
       // Extract public key from JWT claims
-      Map<String, Object> publicJwkMap = signedJWT.getJWTClaimsSet().getJSONObjectClaim("publicJwk");
+      Map<String, Object> publicJwkMap = submission.publicJwk();
 
       log.trace("public jwk : {}", publicJwkMap);
 
       JWK jwk = JWK.parse(publicJwkMap);
 
-      // Ensure the key is an RSA key as expected
-      if( ! (jwk instanceof RSAKey))
+      // Ensure the key is an RSA, EC P-256 or Ed25519 key as expected
+      if( ! (jwk instanceof RSAKey
+        || (jwk instanceof ECKey ecKey && Curve.P_256.equals(ecKey.getCurve()))
+        || (jwk instanceof OctetKeyPair okp && Curve.Ed25519.equals(okp.getCurve()))))
       {
         throw new ResponseStatusException(
-          HttpStatus.BAD_REQUEST, "JWK is not an RSA key"
+          HttpStatus.BAD_REQUEST, "JWK is not a supported signature key"
         );
       }
 
-      // Store validation information and mark as validated
-      signaturePad.setPublicJwk(publicJwkMap);
-      signaturePad.setClientEnvironment(signedJWT.getJWTClaimsSet().getJSONObjectClaim("clientEnvironment"));
-      signaturePad.setValidated(true);
-      signaturePadService.storeSignaturePad(signaturePad);
+      // Store validation information on a copy and mark as validated
+      SignaturePad validatedPad = signaturePad.copy();
+      validatedPad.setPublicJwk(publicJwkMap);
+      validatedPad.setClientEnvironment(submission.clientEnvironment());
+      validatedPad.setValidated(true);
+      signaturePadService.storeSignaturePad(validatedPad);
+      authService.invalidateVerifiers(padUuid);
 
-      String issuer = signedJWT.getJWTClaimsSet().getIssuer();
-      log.debug("issuer: {}", issuer);
+      log.debug("issuer: {}", submission.issuer());
     }
     catch(ParseException e)
     {
@@ -284,7 +334,8 @@ public class ApiSignaturePadController
    * clients about the signature completion.
    * 
    * @param padUuid the unique identifier of the signature pad
-   * @param signatureJwt the signature JWT containing captured signature data
+   * @param request the HTTP request carrying the signature JWT containing
+   *                captured signature data
    * @throws IOException if signature pad data access fails
    * @throws ParseException if JWT parsing fails
    * @throws ResponseStatusException if verification fails
@@ -294,70 +345,130 @@ public class ApiSignaturePadController
                produces = MediaType.APPLICATION_JSON_VALUE)
   public void signature(
     @RequestHeader("SIGNATURE_PAD_UUID") String padUuid,
-    @RequestBody String signatureJwt
+    HttpServletRequest request
   )
     throws IOException, ParseException
   {
     log.debug("signature called");
-    log.debug("Received JWT length: {}", signatureJwt.length());
 
-    // Authenticate signature pad and verify JWT
+    // Authenticate signature pad before reading the body
     SignaturePad signaturePad = authService.authCheck(padUuid, true);
+
+    String signatureJwt = signatureSubmissionReader.readCompactJwt(request);
+    log.debug("Received JWT length: {}", signatureJwt.length());
+
     SignedJWT signedJWT = authService.verifyJwt(signaturePad, signatureJwt);
 
-    // Get waiting deferred result for this signature pad
-    DeferredResult<ResponsePayload> deferred = waitingRequests.get(padUuid);
+    SignatureSubmission submission = parseSubmission(padUuid, signedJWT);
+    String sigpngBase64 = submission.sigpngBase64();
 
-    try
+    if(sigpngBase64 == null && submission.sigstrokes() != null)
     {
-      // Extract signature information from JWT
-      String issuer = signedJWT.getJWTClaimsSet().getIssuer();
-      String kid = signedJWT.getHeader().getKeyID();
-      String sigpngBase64 = signedJWT.getJWTClaimsSet().getClaimAsString("sigpng");
-      String sigsvgBase64 = signedJWT.getJWTClaimsSet().getClaimAsString("sigsvg");
-
-      // Extract and format timestamp information
-      Instant iatInstant = signedJWT.getJWTClaimsSet().getIssueTime().toInstant();
-      long iatEpoch = iatInstant.getEpochSecond();
-      DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
-        .withZone(ZoneId.of("Europe/Berlin"));
-      String iatReadable = fmt.format(iatInstant);
-
-      log.info("JWT verified. Issuer: {} / {}", issuer, kid);
-      log.info("Issued At (iat): {} (epoch: {})", iatReadable, iatEpoch);
-      log.debug("sigpng length: {}, sigsvg length: {}",
-        sigpngBase64.length(), sigsvgBase64.length());
-      log.debug("sigpad={}", signedJWT.getJWTClaimsSet().getClaimAsString("sigpad"));
-      log.debug("name={}", signedJWT.getJWTClaimsSet().getClaimAsString("name"));
-      log.debug("mail={}", signedJWT.getJWTClaimsSet().getClaimAsString("mail"));
-
-      // Store the signed JWT for later retrieval
-      // Store the signed JWT for later retrieval
-      signedJwtService.storeSignedJWT(signedJWT.getJWTClaimsSet().getSubject(), signatureJwt);
-
-      // Notify waiting client with signature data
-      if(deferred != null)
+      // stroke submission, render a small preview for the waiting client
+      // only, the full image is rasterized when it is requested
+      try
       {
-        ResponsePayload payload = new ResponsePayload("ok", sigpngBase64);
-        deferred.setResult(payload);
+        sigpngBase64 = Base64.getEncoder().encodeToString(
+          strokeRenderService.renderPreview(submission.strokes()));
+      }
+      catch(IllegalArgumentException e)
+      {
+        signatureFailed(padUuid);
+        throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Invalid signature strokes: " + e.getMessage()
+        );
       }
     }
-    catch(ParseException e)
+
+    if(sigpngBase64 == null)
     {
-      log.error("Error parsing or verifying JWT", e);
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Signature image missing in JWT"
+      );
+    }
 
-      // Notify waiting client of error
-      if(deferred != null)
-      {
-        ResponsePayload payload = new ResponsePayload("error", null);
-        deferred.setResult(payload);
-      }
+    signatureReceived(padUuid, submission, signatureJwt, sigpngBase64);
+  }
+
+  /**
+   * Processes a signature submitted in binary form.
+   * The multipart request carries the raw PNG and SVG images together with a
+   * small signed JWT whose claims {@code sigpng_sha256} and {@code sigsvg_sha256}
+   * hold the hex encoded SHA-256 digests of the images. The signature pad is
+   * authenticated and the body size limited by {@link SignatureUploadFilter}
+   * before the multipart body is parsed. Each part is streamed once into a
+   * staged blob while its digest is computed; both blobs are committed only
+   * if both digests match, so a rejected submission leaves no blob behind.
+   * The waiting client is notified of a rejected submission.
+   * 
+   * @param padUuid the unique identifier of the signature pad
+   * @param signatureJwt the signed JWT carrying the image digests
+   * @param sigpng the PNG signature image
+   * @param sigsvg the SVG signature image
+   * @throws IOException if signature pad data access or storing the images fails
+   * @throws ResponseStatusException if verification fails or a digest does not match
+   */
+  @PostMapping(path = "/signature",
+               consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+               produces = MediaType.APPLICATION_JSON_VALUE)
+  public void signatureBinary(
+    @RequestHeader("SIGNATURE_PAD_UUID") String padUuid,
+    @RequestPart("jwt") String signatureJwt,
+    @RequestPart("sigpng") MultipartFile sigpng,
+    @RequestPart("sigsvg") MultipartFile sigsvg
+  )
+    throws IOException
+  {
+    log.debug("signature (binary) called");
+    log.debug("Received JWT length: {}, sigpng size: {}, sigsvg size: {}",
+      signatureJwt.length(), sigpng.getSize(), sigsvg.getSize());
+
+    // Authenticate signature pad and verify JWT
+    SignaturePad signaturePad = authService.authCheck(padUuid, true);
+    SignedJWT signedJWT = authService.verifyJwt(signaturePad, signatureJwt.trim());
+    SignatureSubmission submission = parseSubmission(padUuid, signedJWT);
 
+    if(submission.sigpngSha256() == null || submission.sigsvgSha256() == null)
+    {
+      signatureFailed(padUuid);
       throw new ResponseStatusException(
         HttpStatus.BAD_REQUEST,
-        "Invalid JWT payload or signature"
+        "Image digests missing in JWT"
       );
     }
+
+    checkImageDigest(padUuid, sigpng, submission.sigpngSha256());
+    checkImageDigest(padUuid, sigsvg, submission.sigsvgSha256());
+
+    // Stream both images into staged blobs, commit them only if both match
+    String pngHash;
+    try(SignatureBlobService.StagedBlob png = stageImage(sigpng, submission.sigpngSha256());
+      SignatureBlobService.StagedBlob svg = stageImage(sigsvg, submission.sigsvgSha256()))
+    {
+      if( ! png.matches())
+      {
+        imageDigestMismatch(padUuid, sigpng);
+      }
+      if( ! svg.matches())
+      {
+        imageDigestMismatch(padUuid, sigsvg);
+      }
+      png.commit();
+      svg.commit();
+      pngHash = png.getHash();
+    }
+
+    // the preview for the waiting client is read from the stored blob
+    byte[] png = signatureBlobService.loadBlob(pngHash);
+    if(png == null)
+    {
+      throw new IOException("Signature image blob missing: " + pngHash);
+    }
+
+    signatureReceived(padUuid, submission, signatureJwt.trim(),
+      Base64.getEncoder().encodeToString(png));
   }
 
   /**
@@ -385,22 +496,231 @@ public class ApiSignaturePadController
     authService.authCheck(padUuid, true);
 
     // Notify waiting client of cancellation
-    DeferredResult<ResponsePayload> deferred = waitingRequests.get(padUuid);
-    if(deferred != null)
+    padEventRouter.result(padUuid, new ResponsePayload("cancel", null), false);
+    padEventRouter.state(padUuid, PadEventStreamService.STATE_CANCELLED, null);
+  }
+
+  /**
+   * Returns the latest stored signature of a subject as image.
+   * Only validated signature pads may request it. Stroke signatures are
+   * rasterized on demand at the requested size, at most their original
+   * size, and cached; image signatures are returned as stored.
+   * 
+   * @param padUuid the unique identifier of the requesting signature pad
+   * @param subject the subject (user identifier) of the signature
+   * @param format the output format, "png" or "svg"
+   * @param width output width in pixels, 0 for the original size
+   * @param height output height in pixels, 0 for the original size
+   * @return the signature image
+   * @throws IOException if loading or rendering the signature fails
+   * @throws ResponseStatusException if the subject or size is invalid or
+   * no signature is stored for the subject
+   */
+  @GetMapping(path = "/signature-image",
+              produces =
+              {
+                MediaType.IMAGE_PNG_VALUE, "image/svg+xml"
+              })
+  public ResponseEntity<byte[]> signatureImage(
+    @RequestHeader("SIGNATURE_PAD_UUID") String padUuid,
+    @RequestParam("subject") String subject,
+    @RequestParam(name = "format", defaultValue = "png") String format,
+    @RequestParam(name = "width", defaultValue = "0") int width,
+    @RequestParam(name = "height", defaultValue = "0") int height
+  )
+    throws IOException
+  {
+    log.debug("signatureImage subject={} format={} {}x{}", subject, format, width, height);
+
+    // Authenticate signature pad
+    authService.authCheck(padUuid, true);
+
+    if( ! SignedJwtService.isValidSubject(subject))
+    {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid subject");
+    }
+
+    StrokeRenderService.Format imageFormat;
+    try
+    {
+      imageFormat = StrokeRenderService.Format.valueOf(format.toUpperCase());
+    }
+    catch(IllegalArgumentException e)
+    {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown image format");
+    }
+
+    String signatureJwt = signedJwtService.loadSignedJWT(subject);
+    if(signatureJwt == null)
+    {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Signature not found");
+    }
+
+    byte[] image;
+    try
+    {
+      SignatureSubmission submission = SignatureSubmission.of(SignedJWT.parse(signatureJwt));
+
+      if(submission.sigstrokes() != null)
+      {
+        image = renderStrokes(submission, imageFormat, width, height);
+      }
+      else
+      {
+        image = (imageFormat == StrokeRenderService.Format.PNG)
+          ? submission.sigpng() : submission.sigsvg();
+        if(image == null)
+        {
+          String hash = (imageFormat == StrokeRenderService.Format.PNG)
+            ? submission.sigpngSha256() : submission.sigsvgSha256();
+          image = (hash != null) ? signatureBlobService.loadBlob(hash.toLowerCase()) : null;
+        }
+      }
+    }
+    catch(ParseException e)
+    {
+      log.error("Stored signature can not be parsed", e);
+      throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Invalid stored signature");
+    }
+
+    if(image == null)
+    {
+      throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Signature image not found");
+    }
+
+    return ResponseEntity.ok()
+      .contentType((imageFormat == StrokeRenderService.Format.PNG)
+        ? MediaType.IMAGE_PNG : MediaType.valueOf("image/svg+xml"))
+      .body(image);
+  }
+
+  /**
+   * Decodes and renders the stroke data of a submission, reporting invalid
+   * data as bad request.
+   */
+  private byte[] renderStrokes(SignatureSubmission submission,
+    StrokeRenderService.Format format, int width, int height)
+    throws IOException
+  {
+    try
+    {
+      return strokeRenderService.render(submission.strokes(), format, width, height);
+    }
+    catch(IllegalArgumentException e)
+    {
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Invalid signature strokes: " + e.getMessage()
+      );
+    }
+  }
+
+  /**
+   * Extracts the typed submission of a verified JWT. Parsing errors are
+   * reported to a waiting client before the request is rejected.
+   */
+  private SignatureSubmission parseSubmission(String padUuid, SignedJWT signedJWT)
+  {
+    try
+    {
+      return SignatureSubmission.of(signedJWT);
+    }
+    catch(ParseException e)
+    {
+      log.error("Error parsing or verifying JWT", e);
+      signatureFailed(padUuid);
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Invalid JWT payload or signature"
+      );
+    }
+  }
+
+  /**
+   * Notifies the waiting client that the signature could not be processed.
+   */
+  private void signatureFailed(String padUuid)
+  {
+    padEventRouter.result(padUuid, new ResponsePayload("error", null), false);
+    padEventRouter.state(padUuid, PadEventStreamService.STATE_ERROR, null);
+  }
+
+  /**
+   * Checks the format of the digest of an uploaded image. An invalid digest
+   * is reported to the waiting client before the request is rejected.
+   *
+   * @throws ResponseStatusException if the digest is not a hex SHA-256
+   */
+  private void checkImageDigest(String padUuid, MultipartFile image, String expectedSha256)
+  {
+    if( ! expectedSha256.matches("[0-9a-fA-F]{64}"))
     {
-      ResponsePayload payload = new ResponsePayload("cancel", null);
-      deferred.setResult(payload);
+      signatureFailed(padUuid);
+      throw new ResponseStatusException(
+        HttpStatus.BAD_REQUEST,
+        "Invalid image digest for part '" + image.getName() + "'"
+      );
     }
   }
 
+  /**
+   * Streams an uploaded image into a staged blob, computing its digest.
+   */
+  private SignatureBlobService.StagedBlob stageImage(MultipartFile image, String expectedSha256)
+    throws IOException
+  {
+    try(InputStream in = image.getInputStream())
+    {
+      return signatureBlobService.stageBlob(in, expectedSha256);
+    }
+  }
+
+  private void imageDigestMismatch(String padUuid, MultipartFile image)
+  {
+    signatureFailed(padUuid);
+    throw new ResponseStatusException(
+      HttpStatus.BAD_REQUEST,
+      "Image digest mismatch for part '" + image.getName() + "'"
+    );
+  }
+
+  /**
+   * Logs and stores a verified signature and notifies the waiting client.
+   */
+  private void signatureReceived(String padUuid, SignatureSubmission submission,
+    String signatureJwt, String sigpngBase64)
+    throws IOException
+  {
+    // Extract and format timestamp information
+    Instant iatInstant = submission.issueTime();
+    long iatEpoch = iatInstant.getEpochSecond();
+    DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+      .withZone(ZoneId.of("Europe/Berlin"));
+    String iatReadable = fmt.format(iatInstant);
+
+    log.info("JWT verified. Issuer: {} / {}", submission.issuer(), submission.kid());
+    log.info("Issued At (iat): {} (epoch: {})", iatReadable, iatEpoch);
+    log.debug("sigpng length: {}", sigpngBase64.length());
+    log.debug("sigpad={}", submission.sigpad());
+    log.debug("name={}", submission.name());
+    log.debug("mail={}", submission.mail());
+
+    // Store the signed JWT for later retrieval
+    signedJwtService.storeSignedJWT(submission.subject(), signatureJwt);
+
+    // Notify waiting client with signature data, a signature arriving just
+    // after the wait expired is held for the next wait of this pad
+    padEventRouter.result(padUuid, new ResponsePayload("ok", sigpngBase64), true);
+    padEventRouter.state(padUuid, PadEventStreamService.STATE_SIGNED, submission.subject());
+  }
+
   /**
    * Shows a signature request on the specified signature pad.
    * Sends a show event to the signature pad device to display signature
-   * interface for the specified user.
+   * interface for the specified user, on whichever node the pad is connected.
    * 
    * @param padUuid the unique identifier of the signature pad
    * @param cardNumber the identifier of the user requesting the signature
-   * @throws IOException if WebSocket communication fails
    */
   @GetMapping(path = "/show",
               produces = MediaType.APPLICATION_JSON_VALUE)
@@ -408,30 +728,27 @@ public class ApiSignaturePadController
     @RequestParam("uuid") String padUuid,
     @RequestParam("card") String cardNumber
   )
-    throws IOException
   {
     log.debug("show padUuid = {}, card = {}", padUuid, cardNumber);
-    signaturePadWebSocketHandler
-      .fireEventToPad(new DtoEvent(DtoEvent.EVENT_SHOW, cardNumber), padUuid);
+    padEventRouter.show(padUuid, cardNumber);
+    padEventRouter.state(padUuid, PadEventStreamService.STATE_SHOWN, null);
   }
 
   /**
    * Hides the signature interface on the specified signature pad.
-   * Sends a hide event to the signature pad device to clear the display.
+   * Sends a hide event to the signature pad device to clear the display,
+   * on whichever node the pad is connected.
    * 
    * @param padUuid the unique identifier of the signature pad
-   * @throws IOException if WebSocket communication fails
    */
   @GetMapping(path = "/hide",
               produces = MediaType.APPLICATION_JSON_VALUE)
   public void hide(
     @RequestParam("uuid") String padUuid
   )
-    throws IOException
   {
     log.debug("hide padUuid = {}", padUuid);
-    signaturePadWebSocketHandler
-      .fireEventToPad(new DtoEvent(DtoEvent.EVENT_HIDE, "hide"), padUuid);
+    padEventRouter.hide(padUuid);
   }
 
 }
@@ -16,15 +16,12 @@
 package l9g.webapp.signaturepaddemo.controller.api;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.Base64;
-import l9g.webapp.signaturepaddemo.dto.DtoAddress;
-import l9g.webapp.signaturepaddemo.dto.DtoUserInfo;
+import l9g.webapp.signaturepaddemo.service.UserDirectoryService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -49,20 +46,27 @@ public class ApiUserInfoController
   /** Service for authentication and authorization operations */
   private final AuthService authService;
 
+  /** Cached card holder lookup */
+  private final UserDirectoryService userDirectoryService;
+
+  /** Routes pad state changes to the operator event streams of all nodes */
+  private final PadEventRouter padEventRouter;
+
   /**
    * Retrieves user information for the specified user ID.
    * Returns comprehensive user data including personal details, addresses,
    * and profile photo for display on signature pad devices.
+   * The response body is served pre-encoded from the user directory cache.
    * 
    * @param padUuid the unique identifier of the requesting signature pad
    * @param cardNumber the identifier of the user whose information is requested
-   * @return user information data transfer object containing all user details
+   * @return JSON encoded user information data transfer object
    * @throws IOException if authentication fails or resource access fails
    * @throws ResponseStatusException if user not found
    */
   @GetMapping(
     produces = MediaType.APPLICATION_JSON_VALUE)
-  public DtoUserInfo userinfo(
+  public ResponseEntity<byte[]> userinfo(
     @RequestHeader("SIGNATURE_PAD_UUID") String padUuid,
     @RequestParam("card") String cardNumber
   )
@@ -73,8 +77,9 @@ public class ApiUserInfoController
     // Authenticate signature pad
     authService.authCheck(padUuid, true);
 
-    // Demo implementation - only supports user123
-    if (!cardNumber.equalsIgnoreCase("091600045759"))
+    byte[] userInfo = userDirectoryService.getUserInfoJson(cardNumber);
+
+    if(userInfo == null)
     {
       log.error("ERROR: card number not found {}", cardNumber);
       throw new ResponseStatusException(
@@ -82,32 +87,13 @@ public class ApiUserInfoController
         "ERROR: Unknown card number"
       );
     }
-    
-    // Create demo address information
-    DtoAddress semester = new DtoAddress(
-      "c/o M. Maier", "Musterstr. Str 1701", "38302", "Wolfenbüttel", 
-      "Niedersachsen", "Deutschland");
-    DtoAddress home = new DtoAddress(
-      null, "Neuer Weg 4711", "38302", "Wolfenbüttel", 
-      "Niedersachsen", "Deutschland");
 
-    // Load and encode demo profile photo
-    String jpegPhoto;
-    ClassPathResource imgFile = new ClassPathResource("demo/MarieMuster.jpg");
+    // the pad shows the card holder and waits for the signature
+    padEventRouter.state(padUuid, PadEventStreamService.STATE_SIGNING, null);
 
-    try(InputStream is = imgFile.getInputStream())
-    {
-      byte[] imageBytes = is.readAllBytes();
-      String base64 = Base64.getEncoder().encodeToString(imageBytes);
-      jpegPhoto = "data:image/jpeg;base64," + base64;
-    }
-
-    // Create and return user information object
-    DtoUserInfo userInfo = new DtoUserInfo(
-      jpegPhoto, "Marie", "Muster", "user123", "m.muster@the.net", 
-      "01.01.2005", semester, home);
-    
-    return userInfo;
+    return ResponseEntity.ok()
+      .contentType(MediaType.APPLICATION_JSON)
+      .body(userInfo);
   }
 
 }
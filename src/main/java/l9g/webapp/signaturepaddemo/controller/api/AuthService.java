@@ -17,11 +17,18 @@ package l9g.webapp.signaturepaddemo.controller.api;
 
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.OctetKeyPair;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import java.text.ParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import l9g.webapp.signaturepaddemo.service.SignaturePad;
 import l9g.webapp.signaturepaddemo.service.SignaturePadService;
 import lombok.RequiredArgsConstructor;
@@ -41,8 +48,35 @@ public class AuthService
 {
   private final SignaturePadService signaturePadService;
 
+  /** Records the timers of pad authentication and JWT verification */
+  private final ObservationRegistry observationRegistry;
+
+  /**
+   * Parsed public keys and their verifiers, indexed by key ID (uuid-version).
+   * An entry is only valid for the exact publicJwk map it was built from.
+   */
+  private final Map<String, CachedVerifier> verifiersByKeyId =
+    new ConcurrentHashMap<>();
+
+  private record CachedVerifier(Map<String, Object> publicJwk, JWSVerifier verifier)
+    {
+  }
+
   SignaturePad authCheck(String padUuid, boolean checkValidity)
     throws ResponseStatusException
+  {
+    return Observation.createNotStarted("signaturepad.auth.check", observationRegistry)
+      .observe(() -> checkSignaturePad(padUuid, checkValidity));
+  }
+
+  SignedJWT verifyJwt(SignaturePad signaturePad, String jwt)
+    throws ResponseStatusException
+  {
+    return Observation.createNotStarted("signaturepad.jwt.verify", observationRegistry)
+      .observe(() -> parseAndVerify(signaturePad, jwt));
+  }
+
+  private SignaturePad checkSignaturePad(String padUuid, boolean checkValidity)
   {
     log.info("Pad UUID: {} ({})", padUuid, checkValidity ? "true" : "false");
 
@@ -80,18 +114,14 @@ public class AuthService
     return signaturePad;
   }
 
-  SignedJWT verifyJwt(SignaturePad signaturePad, String jwt)
-    throws ResponseStatusException
+  private SignedJWT parseAndVerify(SignaturePad signaturePad, String jwt)
   {
     SignedJWT signedJwt = null;
     try
     {
-      RSAKey publicJwk = (RSAKey)JWK.parse(signaturePad.getPublicJwk());
-
-      log.debug("publicJwk={}", publicJwk);
-      
       signedJwt = SignedJWT.parse(jwt);
-      JWSVerifier verifier = new RSASSAVerifier(publicJwk);
+      JWSVerifier verifier = getVerifier(
+        signaturePad, signedJwt.getHeader().getKeyID());
 
       if( ! signedJwt.verify(verifier))
       {
@@ -119,4 +149,66 @@ public class AuthService
     return signedJwt;
   }
 
+  /**
+   * Drops all cached verifiers of the given signature pad.
+   * Must be called whenever the public key of a pad is replaced.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   */
+  public void invalidateVerifiers(String padUuid)
+  {
+    String prefix = padUuid + "-";
+    verifiersByKeyId.keySet().removeIf(kid -> kid.startsWith(prefix));
+    log.debug("verifiers invalidated for pad {}", padUuid);
+  }
+
+  /**
+   * Returns the verifier for the current public key of the signature pad.
+   * The parsed key is cached by key ID as long as the JWS names the current
+   * key of the pad; any other key ID is verified without caching.
+   */
+  JWSVerifier getVerifier(SignaturePad signaturePad, String kid)
+    throws ParseException, JOSEException
+  {
+    Map<String, Object> publicJwk = signaturePad.getPublicJwk();
+
+    if(kid == null ||  ! kid.equals(signaturePad.getKeyId()))
+    {
+      return createVerifier(publicJwk);
+    }
+
+    CachedVerifier cached = verifiersByKeyId.get(kid);
+    if(cached == null || cached.publicJwk() != publicJwk)
+    {
+      cached = new CachedVerifier(publicJwk, createVerifier(publicJwk));
+      verifiersByKeyId.put(kid, cached);
+    }
+    return cached.verifier();
+  }
+
+  /**
+   * Creates the verifier matching the key type of the public JWK.
+   * RSA keys verify RS256, EC keys ES256 and Ed25519 keys EdDSA.
+   */
+  private JWSVerifier createVerifier(Map<String, Object> publicJwkMap)
+    throws ParseException, JOSEException
+  {
+    JWK publicJwk = JWK.parse(publicJwkMap);
+    log.debug("publicJwk={}", publicJwk);
+
+    if(publicJwk instanceof RSAKey rsaKey)
+    {
+      return new RSASSAVerifier(rsaKey);
+    }
+    if(publicJwk instanceof ECKey ecKey)
+    {
+      return new ECDSAVerifier(ecKey);
+    }
+    if(publicJwk instanceof OctetKeyPair octetKeyPair)
+    {
+      return new JdkEd25519Verifier(octetKeyPair);
+    }
+    throw new JOSEException("Unsupported key type: " + publicJwk.getKeyType());
+  }
+
 }
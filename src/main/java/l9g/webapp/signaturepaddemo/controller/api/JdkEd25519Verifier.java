@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.impl.CriticalHeaderParamsDeferral;
+import com.nimbusds.jose.crypto.impl.EdDSAProvider;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64URL;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+
+/**
+ * Ed25519 JWS verifier based on the JDK signature provider.
+ *
+ * <p>The Ed25519 verifier of nimbus-jose-jwt requires Google Tink, which is
+ * not a dependency of this application. The public key is decoded once,
+ * verification creates a new {@link Signature} per call.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+final class JdkEd25519Verifier extends EdDSAProvider implements JWSVerifier
+{
+  /** X.509 SubjectPublicKeyInfo prefix of a raw 32 byte Ed25519 key */
+  private static final byte[] X509_PREFIX =
+  {
+    0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00
+  };
+
+  private final CriticalHeaderParamsDeferral critPolicy =
+    new CriticalHeaderParamsDeferral();
+
+  private final PublicKey publicKey;
+
+  JdkEd25519Verifier(OctetKeyPair publicJwk)
+    throws JOSEException
+  {
+    if( ! Curve.Ed25519.equals(publicJwk.getCurve()))
+    {
+      throw new JOSEException("Unsupported OKP curve: " + publicJwk.getCurve());
+    }
+
+    byte[] x = publicJwk.getDecodedX();
+    byte[] encoded = new byte[X509_PREFIX.length + x.length];
+    System.arraycopy(X509_PREFIX, 0, encoded, 0, X509_PREFIX.length);
+    System.arraycopy(x, 0, encoded, X509_PREFIX.length, x.length);
+
+    try
+    {
+      publicKey = KeyFactory.getInstance("Ed25519")
+        .generatePublic(new X509EncodedKeySpec(encoded));
+    }
+    catch(GeneralSecurityException e)
+    {
+      throw new JOSEException("Invalid Ed25519 public key", e);
+    }
+  }
+
+  @Override
+  public boolean verify(JWSHeader header, byte[] signingInput,
+    Base64URL signature)
+    throws JOSEException
+  {
+    if( ! supportedJWSAlgorithms().contains(header.getAlgorithm()))
+    {
+      throw new JOSEException("Unsupported JWS algorithm: "
+        + header.getAlgorithm());
+    }
+
+    if( ! critPolicy.headerPasses(header))
+    {
+      return false;
+    }
+
+    try
+    {
+      Signature verifier = Signature.getInstance("Ed25519");
+      verifier.initVerify(publicKey);
+      verifier.update(signingInput);
+      return verifier.verify(signature.decode());
+    }
+    catch(GeneralSecurityException e)
+    {
+      throw new JOSEException("Ed25519 verification failed", e);
+    }
+  }
+
+}
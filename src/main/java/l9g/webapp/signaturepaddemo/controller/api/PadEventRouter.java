@@ -0,0 +1,162 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import l9g.webapp.signaturepaddemo.bus.PadBusMessage;
+import l9g.webapp.signaturepaddemo.bus.PadEventBus;
+import l9g.webapp.signaturepaddemo.dto.DtoEvent;
+import l9g.webapp.signaturepaddemo.ws.SignaturePadWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes pad commands and results over the {@link PadEventBus}, so they
+ * reach the node holding the WebSocket session of the pad, the waiting
+ * operator or the operator event streams. Every node applies the messages
+ * to its local receivers; a node without a matching receiver ignores them.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PadEventRouter
+{
+  private final PadEventBus padEventBus;
+
+  private final SignaturePadWebSocketHandler signaturePadWebSocketHandler;
+
+  private final PendingSignatureRegistry pendingSignatureRegistry;
+
+  private final PadEventStreamService padEventStreamService;
+
+  /**
+   * Registers for the messages delivered to this node.
+   */
+  @PostConstruct
+  public void init()
+  {
+    padEventBus.subscribe(this::onMessage);
+  }
+
+  /**
+   * Shows a signature request on a pad.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   * @param cardNumber the card number of the signing user
+   */
+  public void show(String padUuid, String cardNumber)
+  {
+    padEventBus.publish(new PadBusMessage(
+      PadBusMessage.Type.SHOW, padUuid, cardNumber, null, null, false, 0));
+  }
+
+  /**
+   * Hides the signature interface of a pad.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   */
+  public void hide(String padUuid)
+  {
+    padEventBus.publish(new PadBusMessage(
+      PadBusMessage.Type.HIDE, padUuid, null, null, null, false, 0));
+  }
+
+  /**
+   * Hides the signature interface of a pad whose wait has expired.
+   * A signature the pad sends just before it is hidden is still held for
+   * the next wait.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   */
+  public void timeout(String padUuid)
+  {
+    padEventBus.publish(new PadBusMessage(
+      PadBusMessage.Type.TIMEOUT, padUuid, null, null, null, false, 0));
+  }
+
+  /**
+   * Completes the wait of the operator of a pad.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   * @param payload the result for the waiting operator
+   * @param keepUnclaimed hold the result for the next wait if nobody waits;
+   * only the node whose wait of the pad has just expired holds it
+   */
+  public void result(String padUuid, ResponsePayload payload, boolean keepUnclaimed)
+  {
+    padEventBus.publish(new PadBusMessage(PadBusMessage.Type.RESULT,
+      padUuid, payload.status(), payload.sigpng(), null, keepUnclaimed, 0));
+  }
+
+  /**
+   * Publishes a state change of a pad to the operator event streams.
+   * The event ID is assigned here, so a browser resuming on another node
+   * sends a Last-Event-ID all nodes agree on.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   * @param state the new state
+   * @param subject the subject of the received signature, or null
+   */
+  public void state(String padUuid, String state, String subject)
+  {
+    padEventBus.publish(new PadBusMessage(PadBusMessage.Type.STATE,
+      padUuid, state, null, subject, false, padEventStreamService.nextEventId()));
+  }
+
+  private void onMessage(PadBusMessage message)
+  {
+    String padUuid = message.padUuid();
+    log.trace("bus message {} for pad {}", message.type(), padUuid);
+
+    try
+    {
+      switch(message.type())
+      {
+        case SHOW ->
+        {
+          pendingSignatureRegistry.discardUnclaimed(padUuid);
+          signaturePadWebSocketHandler.fireEventToPad(
+            new DtoEvent(DtoEvent.EVENT_SHOW, message.value()), padUuid);
+        }
+        case HIDE ->
+        {
+          pendingSignatureRegistry.discardUnclaimed(padUuid);
+          signaturePadWebSocketHandler.fireEventToPad(
+            new DtoEvent(DtoEvent.EVENT_HIDE, "hide"), padUuid);
+        }
+        case TIMEOUT ->
+          signaturePadWebSocketHandler.fireEventToPad(
+            new DtoEvent(DtoEvent.EVENT_HIDE, "hide"), padUuid);
+        case RESULT ->
+          pendingSignatureRegistry.complete(padUuid,
+            new ResponsePayload(message.value(), message.sigpng()),
+            message.keepUnclaimed());
+        case STATE ->
+          padEventStreamService.publish(message.eventId(),
+            padUuid, message.value(), message.subject());
+      }
+    }
+    catch(IOException e)
+    {
+      log.error("can't send {} to signature pad {}", message.type(), padUuid, e);
+    }
+  }
+
+}
@@ -0,0 +1,530 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import l9g.webapp.signaturepaddemo.service.SignaturePadService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Streams signature pad state changes to operator screens as Server-Sent
+ * Events. Any number of subscribers can follow a pad, and one subscription
+ * can follow several pads.
+ *
+ * <p>The last events of every pad are kept, so a reconnecting browser which
+ * sends its Last-Event-ID gets the events it missed. Event IDs are assigned
+ * once by the node publishing the event and carried on the pad event bus,
+ * so every node numbers an event alike and a browser may resume on any
+ * node. IDs are a hybrid logical clock (milliseconds shifted left by 8 bits,
+ * advanced past every ID seen), increasing per pad across all nodes, so the
+ * ID of the last received event is enough to resume a subscription to
+ * several pads. Idle streams get a comment line as
+ * heartbeat, which keeps proxies from closing them and detects dead
+ * subscribers. Histories are kept for a bounded number of recently active
+ * pads known to the {@link SignaturePadService}. Events carry the subject of
+ * a received signature instead of the image, which clients fetch on
+ * demand.</p>
+ *
+ * <p>Events are queued per subscription and written by a small pool of
+ * sender threads, so a slow browser never stalls the request publishing the
+ * event. A subscription falling too far behind is closed; the browser
+ * reconnects and resumes with its Last-Event-ID.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PadEventStreamService
+{
+  /** A signature request is shown on the pad */
+  public static final String STATE_SHOWN = "shown";
+
+  /** The pad has loaded the card holder and waits for the signature */
+  public static final String STATE_SIGNING = "signing";
+
+  /** A verified signature has been received */
+  public static final String STATE_SIGNED = "signed";
+
+  /** The signature has been cancelled on the pad */
+  public static final String STATE_CANCELLED = "cancelled";
+
+  /** No signature has been received in time */
+  public static final String STATE_TIMEOUT = "timeout";
+
+  /** The signature submitted by the pad was invalid */
+  public static final String STATE_ERROR = "error";
+
+  /** SSE event name of pad state changes */
+  public static final String EVENT_NAME = "pad-state";
+
+  /** Maximum number of pads a single subscription may follow */
+  public static final int MAX_PADS_PER_SUBSCRIPTION = 64;
+
+  /** Number of events kept per pad for resuming subscriptions */
+  @Value("${app.signature-pad.events.history:16}")
+  private int historySize;
+
+  /** Interval in milliseconds between heartbeats */
+  @Value("${app.signature-pad.events.heartbeat-interval:15000}")
+  private long heartbeatInterval;
+
+  /** Lifetime in milliseconds of an event stream before the browser reconnects */
+  @Value("${app.signature-pad.events.stream-timeout:1800000}")
+  private long streamTimeout;
+
+  /** Maximum number of pads an event history is kept for */
+  @Value("${app.signature-pad.events.max-pads:1000}")
+  private int maxPads;
+
+  /** Maximum number of events queued for one subscription */
+  @Value("${app.signature-pad.events.max-queued:256}")
+  private int maxQueued;
+
+  /** Number of threads writing events to the streams */
+  @Value("${app.signature-pad.events.send-threads:4}")
+  private int sendThreads;
+
+  /** Decides which pads an event history is kept for */
+  private final SignaturePadService signaturePadService;
+
+  /** Highest event ID issued or received by this node */
+  private final AtomicLong eventClock = new AtomicLong();
+
+  /** Recent events per pad, oldest first, for the most recently active pads */
+  private Map<String, Deque<PadStateEvent>> historyByPadUuid;
+
+  /** Subscriptions per pad */
+  private final Map<String, Set<Subscription>> subscriptionsByPadUuid =
+    new ConcurrentHashMap<>();
+
+  /** All open subscriptions */
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+  private ScheduledExecutorService heartbeatExecutor;
+
+  private ExecutorService sendExecutor;
+
+  /**
+   * One event stream following one or more pads. Events are queued in
+   * publish order and written by one sender thread at a time, so replayed
+   * and live events are never interleaved and every event is sent at most
+   * once.
+   */
+  private final class Subscription
+  {
+    private final SseEmitter emitter;
+
+    private final Collection<String> padUuids;
+
+    private final Queue<PadStateEvent> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicBoolean heartbeatPending = new AtomicBoolean();
+
+    /** Set while a drain task is scheduled or running */
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    /** ID of the last event sent per pad, only used by the draining thread */
+    private final Map<String, Long> lastSentIds = new HashMap<>();
+
+    private volatile boolean closed;
+
+    Subscription(SseEmitter emitter, Collection<String> padUuids)
+    {
+      this.emitter = emitter;
+      this.padUuids = padUuids;
+    }
+
+    void enqueue(PadStateEvent event)
+    {
+      if(closed)
+      {
+        return;
+      }
+      if(queued.incrementAndGet() > Math.max(1, maxQueued))
+      {
+        log.debug("event stream too slow, closing it");
+        close();
+        return;
+      }
+      queue.add(event);
+      scheduleDrain();
+    }
+
+    void heartbeat()
+    {
+      if( ! closed && heartbeatPending.compareAndSet(false, true))
+      {
+        scheduleDrain();
+      }
+    }
+
+    /**
+     * Stops the subscription. The emitter is completed by the sender, so
+     * the caller never waits for a send in progress.
+     */
+    void close()
+    {
+      if( ! closed)
+      {
+        closed = true;
+        unregister(this);
+        scheduleDrain();
+      }
+    }
+
+    private void scheduleDrain()
+    {
+      if(draining.compareAndSet(false, true))
+      {
+        try
+        {
+          sendExecutor.execute(this::drain);
+        }
+        catch(RejectedExecutionException e)
+        {
+          draining.set(false);
+          closed = true;
+          unregister(this);
+        }
+      }
+    }
+
+    private void drain()
+    {
+      try
+      {
+        PadStateEvent event;
+        while( ! closed && (event = queue.poll()) != null)
+        {
+          queued.decrementAndGet();
+          send(event);
+        }
+        if( ! closed && heartbeatPending.getAndSet(false))
+        {
+          sendHeartbeat();
+        }
+        if(closed && completed.compareAndSet(false, true))
+        {
+          queue.clear();
+          emitter.complete();
+        }
+      }
+      finally
+      {
+        draining.set(false);
+        // pick up events queued after the last poll
+        if(( ! closed && ( ! queue.isEmpty() || heartbeatPending.get()))
+          || (closed &&  ! completed.get()))
+        {
+          scheduleDrain();
+        }
+      }
+    }
+
+    private void send(PadStateEvent event)
+    {
+      if(event.id() <= lastSentIds.getOrDefault(event.pad(), 0L))
+      {
+        return;
+      }
+      try
+      {
+        emitter.send(SseEmitter.event()
+          .id(Long.toString(event.id()))
+          .name(EVENT_NAME)
+          .data(event, MediaType.APPLICATION_JSON));
+        lastSentIds.put(event.pad(), event.id());
+      }
+      catch(IOException | IllegalStateException e)
+      {
+        log.debug("event stream closed: {}", e.getMessage());
+        closed = true;
+        unregister(this);
+      }
+    }
+
+    private void sendHeartbeat()
+    {
+      try
+      {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+      }
+      catch(IOException | IllegalStateException e)
+      {
+        log.debug("event stream closed: {}", e.getMessage());
+        closed = true;
+        unregister(this);
+      }
+    }
+
+  }
+
+  /**
+   * Sets up the bounded event history, the sender threads and starts
+   * sending heartbeats.
+   */
+  @PostConstruct
+  public void init()
+  {
+    final int maxEntries = Math.max(1, maxPads);
+    historyByPadUuid = Collections.synchronizedMap(
+      new LinkedHashMap<String, Deque<PadStateEvent>>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Deque<PadStateEvent>> eldest)
+      {
+        return size() > maxEntries;
+      }
+
+    });
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    sendExecutor = Executors.newFixedThreadPool(Math.max(1, sendThreads), r ->
+    {
+      Thread thread = new Thread(r, "pad-event-sender-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r ->
+    {
+      Thread thread = new Thread(r, "pad-event-heartbeat");
+      thread.setDaemon(true);
+      return thread;
+    });
+    heartbeatExecutor.scheduleWithFixedDelay(() ->
+      subscriptions.forEach(Subscription::heartbeat),
+      heartbeatInterval, heartbeatInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Closes all event streams.
+   */
+  @PreDestroy
+  public void close()
+  {
+    heartbeatExecutor.shutdownNow();
+    subscriptions.forEach(Subscription::close);
+    sendExecutor.shutdown();
+  }
+
+  /**
+   * Opens an event stream following the given pads.
+   *
+   * @param padUuids the pads to follow
+   * @param lastEventId ID of the last event the client has received, or null
+   * for a new subscription
+   * @return the event stream
+   */
+  public SseEmitter subscribe(Collection<String> padUuids, Long lastEventId)
+  {
+    SseEmitter emitter = new SseEmitter(streamTimeout);
+    Subscription subscription = new Subscription(emitter, List.copyOf(padUuids));
+
+    emitter.onCompletion(() -> unregister(subscription));
+    emitter.onTimeout(subscription::close);
+    emitter.onError(e -> subscription.close());
+
+    subscriptions.add(subscription);
+    for(String padUuid : subscription.padUuids)
+    {
+      // register and replay under the history lock of the pad, so no live
+      // event is queued ahead of the missed ones
+      Deque<PadStateEvent> history = history(padUuid);
+      if(history == null)
+      {
+        // unknown pad, nothing to replay
+        addSubscription(padUuid, subscription);
+        continue;
+      }
+      synchronized(history)
+      {
+        addSubscription(padUuid, subscription);
+
+        if(lastEventId != null)
+        {
+          for(PadStateEvent event : history)
+          {
+            if(event.id() > lastEventId)
+            {
+              subscription.enqueue(event);
+            }
+          }
+        }
+      }
+    }
+
+    log.debug("event stream opened for {} (resume after {})", padUuids, lastEventId);
+    return emitter;
+  }
+
+  /**
+   * Issues the ID of a new event, greater than every ID this node has
+   * issued or received.
+   *
+   * @return the event ID
+   */
+  public long nextEventId()
+  {
+    long clock = System.currentTimeMillis() << 8;
+    return eventClock.updateAndGet(last -> Math.max(clock, last + 1));
+  }
+
+  /**
+   * Records a state change of a pad and sends it to all its subscribers.
+   *
+   * @param eventId the ID issued by {@link #nextEventId()} on the publishing node
+   * @param padUuid the unique identifier of the signature pad
+   * @param state the new state
+   * @param subject the subject of the received signature, or null
+   */
+  public void publish(long eventId, String padUuid, String state, String subject)
+  {
+    // events of other nodes advance the clock of this node
+    eventClock.accumulateAndGet(eventId, Math::max);
+
+    PadStateEvent event = new PadStateEvent(eventId,
+      padUuid, state, subject, System.currentTimeMillis());
+    Deque<PadStateEvent> history = history(padUuid);
+
+    if(history == null)
+    {
+      // unknown pad, only live subscribers get the event
+      enqueue(padUuid, event);
+      return;
+    }
+
+    synchronized(history)
+    {
+      // events are queued under the pad lock, so every subscription queue
+      // follows the pad history
+      history.addLast(event);
+      while(history.size() > Math.max(1, historySize))
+      {
+        history.removeFirst();
+      }
+
+      enqueue(padUuid, event);
+    }
+    log.debug("pad {} state {}", padUuid, state);
+  }
+
+  /**
+   * @return number of open event streams
+   */
+  public int getSubscriptionCount()
+  {
+    return subscriptions.size();
+  }
+
+  /**
+   * Returns the event history of a pad, created on first use for pads known
+   * to the {@link SignaturePadService} only, so arbitrary UUIDs never push
+   * real pads out of the bounded history.
+   *
+   * @return the history or null for an unknown pad
+   */
+  private Deque<PadStateEvent> history(String padUuid)
+  {
+    Deque<PadStateEvent> history = historyByPadUuid.get(padUuid);
+    if(history == null && isKnownPad(padUuid))
+    {
+      history = historyByPadUuid.computeIfAbsent(padUuid, k -> new ArrayDeque<>());
+    }
+    return history;
+  }
+
+  private boolean isKnownPad(String padUuid)
+  {
+    try
+    {
+      return signaturePadService.getSignaturePadByUUID(padUuid) != null;
+    }
+    catch(IOException e)
+    {
+      log.debug("signature pad {} can not be read: {}", padUuid, e.getMessage());
+      return false;
+    }
+  }
+
+  private void addSubscription(String padUuid, Subscription subscription)
+  {
+    subscriptionsByPadUuid.compute(padUuid, (k, set) ->
+    {
+      Set<Subscription> padSubscriptions =
+        (set != null) ? set : ConcurrentHashMap.newKeySet();
+      padSubscriptions.add(subscription);
+      return padSubscriptions;
+    });
+  }
+
+  private void enqueue(String padUuid, PadStateEvent event)
+  {
+    Set<Subscription> padSubscriptions = subscriptionsByPadUuid.get(padUuid);
+    if(padSubscriptions != null)
+    {
+      padSubscriptions.forEach(subscription -> subscription.enqueue(event));
+    }
+  }
+
+  private void unregister(Subscription subscription)
+  {
+    subscriptions.remove(subscription);
+    for(String padUuid : subscription.padUuids)
+    {
+      subscriptionsByPadUuid.computeIfPresent(padUuid, (k, set) ->
+      {
+        set.remove(subscription);
+        return set.isEmpty() ? null : set;
+      });
+    }
+  }
+
+}
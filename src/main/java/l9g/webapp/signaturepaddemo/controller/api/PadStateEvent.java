@@ -0,0 +1,39 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+/**
+ * A state change of a signature pad as streamed to operator screens.
+ *
+ * @param id event ID, increasing per signature pad, used for resuming
+ * @param pad the unique identifier of the signature pad
+ * @param state the new state, see the STATE constants of
+ * {@link PadEventStreamService}
+ * @param subject the subject of the signature for the signed state; the
+ * image is fetched from /api/v1/signature-pad/signature-image
+ * @param timestamp epoch milliseconds of the state change
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record PadStateEvent(
+  long id,
+  String pad,
+  String state,
+  String subject,
+  long timestamp
+  )
+{
+}
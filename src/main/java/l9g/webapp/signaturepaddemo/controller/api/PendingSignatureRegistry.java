@@ -0,0 +1,417 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Registry of operators waiting for the signature of a pad.
+ *
+ * <p>Timeouts are driven by a single hashed timer wheel instead of one
+ * container timeout per request. The number of concurrent waits is capped,
+ * further waits are rejected with 503.</p>
+ *
+ * <p>Every wait ends exactly once: completion and expiry both have to remove
+ * the wait from the registry first, and only the one that succeeds delivers
+ * its result. A signature arriving for a pad whose wait has just expired is
+ * held for a short time and handed to the next wait of that pad, unless a
+ * new signature request is shown on the pad or an operator hides it. Results
+ * reach every node over the pad event bus, so only the node on which the
+ * wait of the pad expired holds it; all other nodes drop it.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+public class PendingSignatureRegistry
+{
+  /** Number of slots of the timer wheel */
+  private static final int WHEEL_SIZE = 512;
+
+  /** Maximum number of operators waiting at the same time */
+  @Value("${app.signature-pad.wait.max-pending:1000}")
+  private int maxPending;
+
+  /** Resolution in milliseconds of the timer wheel */
+  @Value("${app.signature-pad.wait.tick:250}")
+  private long tickMillis;
+
+  /** Time in milliseconds a signature is held after its wait has expired */
+  @Value("${app.signature-pad.wait.unclaimed-ttl:30000}")
+  private long unclaimedTtl;
+
+  /** Active waits, indexed by pad UUID */
+  private final Map<String, PendingSignature> pendingByPadUuid =
+    new ConcurrentHashMap<>();
+
+  /** Signatures which arrived after their wait expired, indexed by pad UUID */
+  private final Map<String, UnclaimedResult> unclaimedByPadUuid =
+    new ConcurrentHashMap<>();
+
+  /** Time in milliseconds at which the last wait of a pad expired on this node */
+  private final Map<String, Long> expiredAtByPadUuid = new ConcurrentHashMap<>();
+
+  private final AtomicInteger pendingCount = new AtomicInteger();
+
+  /** Waits registered since the last tick, handed over to the wheel thread */
+  private final Queue<PendingSignature> newWaits = new ConcurrentLinkedQueue<>();
+
+  /** Timer wheel, only accessed by the wheel thread */
+  private final List<ArrayDeque<PendingSignature>> wheel = new ArrayList<>(WHEEL_SIZE);
+
+  private final LongAdder completed = new LongAdder();
+
+  private final LongAdder expired = new LongAdder();
+
+  private final LongAdder rejected = new LongAdder();
+
+  private final LongAdder replaced = new LongAdder();
+
+  private Thread wheelThread;
+
+  private volatile boolean running;
+
+  private volatile long startTime;
+
+  private record UnclaimedResult(ResponsePayload payload, long expiresAt)
+    {
+  }
+
+  /**
+   * A registered wait of an operator.
+   */
+  public static final class PendingSignature
+  {
+    private final String padUuid;
+
+    private final DeferredResult<ResponsePayload> deferred;
+
+    private final Runnable onExpire;
+
+    private final long deadline;
+
+    private long remainingRounds;
+
+    PendingSignature(String padUuid, DeferredResult<ResponsePayload> deferred,
+      Runnable onExpire, long deadline)
+    {
+      this.padUuid = padUuid;
+      this.deferred = deferred;
+      this.onExpire = onExpire;
+      this.deadline = deadline;
+    }
+
+    /**
+     * @return the deferred result completed by this wait
+     */
+    public DeferredResult<ResponsePayload> getDeferred()
+    {
+      return deferred;
+    }
+
+  }
+
+  /**
+   * Starts the timer wheel thread.
+   */
+  @PostConstruct
+  public void init()
+  {
+    for(int i = 0; i < WHEEL_SIZE; i ++)
+    {
+      wheel.add(new ArrayDeque<>());
+    }
+    tickMillis = Math.max(10, tickMillis);
+    startTime = System.nanoTime();
+    running = true;
+    wheelThread = new Thread(this::runWheel, "pending-signature-wheel");
+    wheelThread.setDaemon(true);
+    wheelThread.start();
+    log.info("Pending signature registry: max {} waits, tick {} ms",
+      maxPending, tickMillis);
+  }
+
+  /**
+   * Stops the timer wheel thread.
+   */
+  @PreDestroy
+  public void close()
+  {
+    running = false;
+    wheelThread.interrupt();
+  }
+
+  /**
+   * Registers a wait for the signature of a pad, replacing an earlier wait
+   * of the same pad which is completed with "cancel".
+   *
+   * @param padUuid the unique identifier of the signature pad
+   * @param timeoutMillis time in milliseconds until the wait expires
+   * @param onExpire run once if the wait expires, must complete the deferred result
+   * @return the new wait
+   * @throws ResponseStatusException 503 if the maximum number of waits is reached
+   */
+  public PendingSignature register(String padUuid, long timeoutMillis, Runnable onExpire)
+  {
+    // the container timeout is only a fallback if the wheel thread stalls
+    DeferredResult<ResponsePayload> deferred =
+      new DeferredResult<>(timeoutMillis + 4 * tickMillis);
+    PendingSignature wait = new PendingSignature(padUuid, deferred, onExpire,
+      currentTick() + Math.max(1, timeoutMillis / tickMillis));
+
+    PendingSignature[] previous = new PendingSignature[1];
+    pendingByPadUuid.compute(padUuid, (key, old) ->
+    {
+      if(old == null && pendingCount.incrementAndGet() > maxPending)
+      {
+        pendingCount.decrementAndGet();
+        rejected.increment();
+        throw new ResponseStatusException(
+          HttpStatus.SERVICE_UNAVAILABLE, "Too many pending signature requests");
+      }
+      previous[0] = old;
+      return wait;
+    });
+
+    if(previous[0] != null)
+    {
+      replaced.increment();
+      previous[0].deferred.setResult(new ResponsePayload("cancel", null));
+    }
+
+    expiredAtByPadUuid.remove(padUuid);
+    deferred.onTimeout(() -> expire(wait));
+    deferred.onCompletion(() -> remove(wait));
+    deferred.onError(e -> remove(wait));
+
+    UnclaimedResult unclaimed = unclaimedByPadUuid.remove(padUuid);
+    if(unclaimed != null && unclaimed.expiresAt() > System.currentTimeMillis())
+    {
+      log.debug("handing unclaimed signature of pad {} to new wait", padUuid);
+      complete(padUuid, unclaimed.payload(), false);
+    }
+    else
+    {
+      newWaits.add(wait);
+    }
+
+    return wait;
+  }
+
+  /**
+   * Completes the wait of a pad with a result.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   * @param payload the result for the waiting operator
+   * @param keepUnclaimed hold the result for the next wait if nobody waits
+   * and the wait of the pad has just expired on this node
+   * @return true if a waiting operator received the result
+   */
+  public boolean complete(String padUuid, ResponsePayload payload, boolean keepUnclaimed)
+  {
+    PendingSignature wait = pendingByPadUuid.get(padUuid);
+    if(wait != null && remove(wait))
+    {
+      completed.increment();
+      wait.deferred.setResult(payload);
+      return true;
+    }
+
+    Long expiredAt = expiredAtByPadUuid.remove(padUuid);
+    long now = System.currentTimeMillis();
+    if(keepUnclaimed && expiredAt != null && now - expiredAt < unclaimedTtl)
+    {
+      unclaimedByPadUuid.put(padUuid, new UnclaimedResult(payload, now + unclaimedTtl));
+      log.debug("wait of pad {} has expired, holding result", padUuid);
+    }
+    return false;
+  }
+
+  /**
+   * Drops a signature held for the next wait of a pad. Called whenever an
+   * operator shows a new request on the pad or hides it, so a late
+   * signature never completes the wait for a different card holder. The
+   * hide sent when a wait expires does not call it.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   */
+  public void discardUnclaimed(String padUuid)
+  {
+    expiredAtByPadUuid.remove(padUuid);
+    if(unclaimedByPadUuid.remove(padUuid) != null)
+    {
+      log.debug("unclaimed signature of pad {} discarded", padUuid);
+    }
+  }
+
+  /**
+   * @param padUuid the unique identifier of the signature pad
+   * @param wait a wait returned by {@link #register}
+   * @return true if the wait is still the active wait of the pad
+   */
+  public boolean isActive(String padUuid, PendingSignature wait)
+  {
+    return pendingByPadUuid.get(padUuid) == wait;
+  }
+
+  /**
+   * @return current gauges and counters
+   */
+  public PendingSignatureStatistics getStatistics()
+  {
+    return new PendingSignatureStatistics(
+      pendingCount.get(),
+      maxPending,
+      completed.sum(),
+      expired.sum(),
+      rejected.sum(),
+      replaced.sum(),
+      unclaimedByPadUuid.size()
+    );
+  }
+
+  /**
+   * Removes a wait from the registry.
+   *
+   * @return true if this call removed it, false if it had already ended
+   */
+  private boolean remove(PendingSignature wait)
+  {
+    if(pendingByPadUuid.remove(wait.padUuid, wait))
+    {
+      pendingCount.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  private void expire(PendingSignature wait)
+  {
+    if(remove(wait))
+    {
+      expired.increment();
+      expiredAtByPadUuid.put(wait.padUuid, System.currentTimeMillis());
+      log.warn("Timeout bei padUuid={}", wait.padUuid);
+      try
+      {
+        wait.onExpire.run();
+      }
+      catch(RuntimeException e)
+      {
+        log.error("timeout handling failed for pad {}", wait.padUuid, e);
+      }
+      // in case the handler did not complete it
+      wait.deferred.setResult(new ResponsePayload("timeout", null));
+    }
+  }
+
+  private long currentTick()
+  {
+    return (System.nanoTime() - startTime) / TimeUnit.MILLISECONDS.toNanos(tickMillis);
+  }
+
+  private void runWheel()
+  {
+    long tick = 0;
+    while(running)
+    {
+      long sleepNanos = startTime
+        + (tick + 1) * TimeUnit.MILLISECONDS.toNanos(tickMillis) - System.nanoTime();
+      if(sleepNanos > 0)
+      {
+        try
+        {
+          TimeUnit.NANOSECONDS.sleep(sleepNanos);
+        }
+        catch(InterruptedException e)
+        {
+          if( ! running)
+          {
+            return;
+          }
+        }
+        continue;
+      }
+
+      try
+      {
+        scheduleNewWaits(tick);
+        expireSlot(wheel.get((int)(tick & (WHEEL_SIZE - 1))));
+        long now = System.currentTimeMillis();
+        unclaimedByPadUuid.values().removeIf(u -> u.expiresAt() <= now);
+        expiredAtByPadUuid.values().removeIf(at -> now - at >= unclaimedTtl);
+      }
+      catch(RuntimeException e)
+      {
+        log.error("pending signature wheel", e);
+      }
+      tick ++;
+    }
+  }
+
+  private void scheduleNewWaits(long tick)
+  {
+    PendingSignature wait;
+    while((wait = newWaits.poll()) != null)
+    {
+      long deadline = Math.max(wait.deadline, tick);
+      wait.remainingRounds = (deadline - tick) / WHEEL_SIZE;
+      wheel.get((int)(deadline & (WHEEL_SIZE - 1))).add(wait);
+    }
+  }
+
+  private void expireSlot(ArrayDeque<PendingSignature> slot)
+  {
+    Iterator<PendingSignature> iterator = slot.iterator();
+    while(iterator.hasNext())
+    {
+      PendingSignature wait = iterator.next();
+      if( ! isActive(wait.padUuid, wait))
+      {
+        // completed or replaced, nothing to do
+        iterator.remove();
+      }
+      else if(wait.remainingRounds <= 0)
+      {
+        iterator.remove();
+        expire(wait);
+      }
+      else
+      {
+        wait.remainingRounds --;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+/**
+ * Gauges and counters of the pending signature registry.
+ *
+ * @param pending operators currently waiting for a signature
+ * @param maxPending maximum number of waiting operators
+ * @param completed waits completed with a result
+ * @param expired waits ended by timeout
+ * @param rejected waits rejected because the registry was full
+ * @param replaced waits cancelled by a newer wait for the same pad
+ * @param unclaimed signatures held for a waiter which has already timed out
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record PendingSignatureStatistics(
+  int pending,
+  int maxPending,
+  long completed,
+  long expired,
+  long rejected,
+  long replaced,
+  int unclaimed
+  )
+{
+}
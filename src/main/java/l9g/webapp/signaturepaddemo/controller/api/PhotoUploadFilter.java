@@ -0,0 +1,112 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import l9g.webapp.signaturepaddemo.service.PhotoStorageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Guards the photo upload endpoint before the multipart body is read.
+ * Requests announcing a body larger than the maximum photo size are
+ * answered with 413 right away, and the number of uploads processed at the
+ * same time is bounded; uploads beyond the limit are answered with 503.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PhotoUploadFilter extends OncePerRequestFilter
+{
+  private static final String PHOTO_PATH = "/api/v1/signature-pad/photo";
+
+  /** Allowance for multipart boundaries and part headers */
+  private static final long MULTIPART_OVERHEAD = 65536;
+
+  private final PhotoStorageService photoStorageService;
+
+  /** Maximum number of photo uploads processed at the same time */
+  @Value("${app.photo.max-concurrent-uploads:4}")
+  private int maxConcurrentUploads;
+
+  private Semaphore uploadPermits;
+
+  /**
+   * Sets up the upload permits.
+   */
+  @PostConstruct
+  public void init()
+  {
+    uploadPermits = new Semaphore(Math.max(1, maxConcurrentUploads));
+  }
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request)
+  {
+    return  ! ("POST".equals(request.getMethod())
+      && PHOTO_PATH.equals(request.getServletPath()));
+  }
+
+  @Override
+  protected void doFilterInternal(
+    @NonNull HttpServletRequest request,
+    @NonNull HttpServletResponse response,
+    @NonNull FilterChain filterChain)
+    throws ServletException, IOException
+  {
+    long contentLength = request.getContentLengthLong();
+    if(contentLength > photoStorageService.getMaxSize() + MULTIPART_OVERHEAD)
+    {
+      log.warn("Photo upload rejected, {} bytes announced", contentLength);
+      response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+        "Photo exceeds maximum size");
+      return;
+    }
+
+    if( ! uploadPermits.tryAcquire())
+    {
+      log.warn("Photo upload rejected, {} uploads in progress", maxConcurrentUploads);
+      response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(),
+        "Too many concurrent photo uploads");
+      return;
+    }
+
+    try
+    {
+      filterChain.doFilter(request, response);
+    }
+    finally
+    {
+      uploadPermits.release();
+    }
+  }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import com.google.zxing.common.BitMatrix;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a QR code {@link BitMatrix} as a 1-bit grayscale PNG.
+ * Each module becomes a square of {@code scale} pixels, centered in an image
+ * of the requested size whose remaining pixels widen the quiet zone.
+ * Scanlines are packed directly from the matrix, no intermediate image is
+ * allocated.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+final class QrCodePngEncoder
+{
+  private static final byte[] PNG_SIGNATURE =
+  {
+    (byte)0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'
+  };
+
+  private static final byte[] IHDR = chunkType("IHDR");
+
+  private static final byte[] IDAT = chunkType("IDAT");
+
+  private static final byte[] IEND = chunkType("IEND");
+
+  /** Largest supported module scale */
+  static final int MAX_SCALE = 64;
+
+  private QrCodePngEncoder()
+  {
+  }
+
+  /**
+   * Encodes the matrix as PNG.
+   *
+   * @param matrix the QR code with one bit per module, set bits are dark
+   * @param scale width and height of one module in pixels
+   * @param size width and height of the image in pixels, at least the
+   * scaled matrix
+   * @param out the stream receiving the PNG
+   * @throws IOException if writing fails
+   */
+  static void write(BitMatrix matrix, int scale, int size, OutputStream out)
+    throws IOException
+  {
+    if(scale < 1 || scale > MAX_SCALE)
+    {
+      throw new IllegalArgumentException("Invalid module scale " + scale);
+    }
+
+    int modulesX = matrix.getWidth();
+    int modulesY = matrix.getHeight();
+    int codeWidth = modulesX * scale;
+    int codeHeight = modulesY * scale;
+    if(size < Math.max(codeWidth, codeHeight))
+    {
+      throw new IllegalArgumentException("Image size " + size
+        + " too small for " + modulesX + " modules at scale " + scale);
+    }
+
+    int width = size;
+    int height = size;
+    int offsetX = (width - codeWidth) / 2;
+    int offsetY = (height - codeHeight) / 2;
+    int rowBytes = (width + 7) >>> 3;
+
+    out.write(PNG_SIGNATURE);
+
+    byte[] header = new byte[13];
+    putInt(header, 0, width);
+    putInt(header, 4, height);
+    header[8] = 1;  // bit depth
+    header[9] = 0;  // grayscale
+    header[10] = 0; // deflate
+    header[11] = 0; // adaptive filtering
+    header[12] = 0; // no interlace
+    writeChunk(out, IHDR, header, header.length);
+
+    ByteArrayOutputStream idat = new ByteArrayOutputStream(rowBytes * modulesY);
+    Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try
+    {
+      try(DeflaterOutputStream zout = new DeflaterOutputStream(idat, deflater, 4096))
+      {
+        // filter type 0 followed by the packed pixels, white is 1
+        byte[] blank = new byte[1 + rowBytes];
+        Arrays.fill(blank, 1, blank.length, (byte)0xff);
+        for(int y = 0; y < offsetY; y ++)
+        {
+          zout.write(blank);
+        }
+
+        byte[] scanline = new byte[1 + rowBytes];
+        for(int my = 0; my < modulesY; my ++)
+        {
+          Arrays.fill(scanline, 1, scanline.length, (byte)0);
+          for(int x = 0; x < width; x ++)
+          {
+            int codeX = x - offsetX;
+            if(codeX < 0 || codeX >= codeWidth ||  ! matrix.get(codeX / scale, my))
+            {
+              scanline[1 + (x >>> 3)] |= (byte)(0x80 >>> (x & 7));
+            }
+          }
+          for(int i = 0; i < scale; i ++)
+          {
+            zout.write(scanline);
+          }
+        }
+
+        for(int y = offsetY + codeHeight; y < height; y ++)
+        {
+          zout.write(blank);
+        }
+      }
+    }
+    finally
+    {
+      deflater.end();
+    }
+
+    writeChunk(out, IDAT, idat.toByteArray(), idat.size());
+    writeChunk(out, IEND, new byte[0], 0);
+  }
+
+  /**
+   * Encodes the matrix as PNG into a byte array, the image being exactly as
+   * large as the scaled matrix.
+   *
+   * @param matrix the QR code with one bit per module, set bits are dark
+   * @param scale width and height of one module in pixels
+   * @return the PNG image
+   */
+  static byte[] encode(BitMatrix matrix, int scale)
+  {
+    return encode(matrix, scale, Math.max(matrix.getWidth(), matrix.getHeight()) * scale);
+  }
+
+  /**
+   * Encodes the matrix as PNG into a byte array.
+   *
+   * @param matrix the QR code with one bit per module, set bits are dark
+   * @param scale width and height of one module in pixels
+   * @param size width and height of the image in pixels, at least the
+   * scaled matrix
+   * @return the PNG image
+   */
+  static byte[] encode(BitMatrix matrix, int scale, int size)
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+    try
+    {
+      write(matrix, scale, size, out);
+    }
+    catch(IOException e)
+    {
+      // not thrown by ByteArrayOutputStream
+      throw new IllegalStateException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static void writeChunk(
+    OutputStream out, byte[] type, byte[] data, int length)
+    throws IOException
+  {
+    byte[] buffer = new byte[4];
+    putInt(buffer, 0, length);
+    out.write(buffer);
+    out.write(type);
+    out.write(data, 0, length);
+
+    CRC32 crc = new CRC32();
+    crc.update(type);
+    crc.update(data, 0, length);
+    putInt(buffer, 0, (int)crc.getValue());
+    out.write(buffer);
+  }
+
+  private static void putInt(byte[] buffer, int offset, int value)
+  {
+    buffer[offset] = (byte)(value >>> 24);
+    buffer[offset + 1] = (byte)(value >>> 16);
+    buffer[offset + 2] = (byte)(value >>> 8);
+    buffer[offset + 3] = (byte)value;
+  }
+
+  private static byte[] chunkType(String type)
+  {
+    return type.getBytes(StandardCharsets.US_ASCII);
+  }
+
+}
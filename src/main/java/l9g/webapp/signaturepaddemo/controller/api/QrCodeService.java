@@ -0,0 +1,248 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import l9g.webapp.signaturepaddemo.service.SignatureBlobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+/**
+ * Renders QR codes as PNG or SVG and keeps the results in a bounded LRU
+ * cache keyed by content, size and format. Each rendered image carries a
+ * strong ETag derived from its bytes. PNGs are exactly as large as
+ * requested, the pixels left over by the whole-pixel module scale widen the
+ * quiet zone; with a fixed module scale the PNG size follows the matrix and
+ * the requested size is ignored.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class QrCodeService
+{
+  /** Supported output formats */
+  public enum Format
+  {
+    PNG(MediaType.IMAGE_PNG),
+    SVG(MediaType.valueOf("image/svg+xml"));
+
+    private final MediaType mediaType;
+
+    Format(MediaType mediaType)
+    {
+      this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType()
+    {
+      return mediaType;
+    }
+
+  }
+
+  /**
+   * A rendered QR code.
+   *
+   * @param data the encoded image
+   * @param etag strong entity tag of the image
+   * @param mediaType the content type of the image
+   */
+  public record QrCodeImage(byte[] data, String etag, MediaType mediaType)
+    {
+  }
+
+  /** Largest width and height a QR code can be rendered at */
+  public static final int MAX_SIZE = 2048;
+
+  /** Quiet zone around the QR code in modules */
+  private static final int MARGIN = 2;
+
+  /** Maximum number of rendered QR codes kept in memory */
+  @Value("${app.qrcode.cache-size:128}")
+  private int cacheSize;
+
+  /**
+   * Pixels per QR module for PNG output, 0 derives the largest scale
+   * that fits into the requested size
+   */
+  @Value("${app.qrcode.module-scale:0}")
+  private int moduleScale;
+
+  /** Records the timer of QR code rendering */
+  private final ObservationRegistry observationRegistry;
+
+  private final Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
+
+  private Map<String, QrCodeImage> qrCodeCache;
+
+  /**
+   * Sets up the encoder hints and the bounded QR code cache.
+   */
+  @PostConstruct
+  public void init()
+  {
+    hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+    hints.put(EncodeHintType.MARGIN, MARGIN);
+
+    final int maxEntries = Math.max(1, cacheSize);
+    qrCodeCache = Collections.synchronizedMap(
+      new LinkedHashMap<String, QrCodeImage>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, QrCodeImage> eldest)
+      {
+        return size() > maxEntries;
+      }
+
+    });
+  }
+
+  /**
+   * Returns the QR code for the given content, rendering it on a cache miss.
+   *
+   * @param content the text to encode
+   * @param size width and height of the image in pixels
+   * @param format the output format
+   * @return the rendered QR code
+   * @throws WriterException if the content can not be encoded
+   * @throws IllegalArgumentException if the size is out of range or too
+   * small for one pixel per module
+   */
+  public QrCodeImage getQrCode(String content, int size, Format format)
+    throws WriterException
+  {
+    if(size < 1 || size > MAX_SIZE)
+    {
+      throw new IllegalArgumentException("Invalid QR code size " + size);
+    }
+
+    // a fixed module scale makes the PNG independent of the requested size
+    String key = (format == Format.PNG && moduleScale > 0)
+      ? format + "/x" + moduleScale + "/" + content
+      : format + "/" + size + "/" + content;
+    QrCodeImage image = qrCodeCache.get(key);
+
+    if(image == null)
+    {
+      log.debug("Generating QR code for: {}", content);
+      byte[] data = Observation
+        .createNotStarted("signaturepad.qrcode.render", observationRegistry)
+        .lowCardinalityKeyValue("format", format.name().toLowerCase())
+        .observeChecked(() -> (format == Format.PNG)
+        ? renderPng(content, size) : renderSvg(content, size));
+      image = new QrCodeImage(data,
+        "\"" + SignatureBlobService.sha256(data).substring(0, 32) + "\"",
+        format.getMediaType());
+      qrCodeCache.put(key, image);
+    }
+
+    return image;
+  }
+
+  /**
+   * Renders the QR code as a 1-bit grayscale PNG straight from the module
+   * matrix, each module scaled to a square of whole pixels.
+   */
+  private byte[] renderPng(String content, int size)
+    throws WriterException
+  {
+    QRCodeWriter qrWriter = new QRCodeWriter();
+    // width and height 0 return the matrix with one pixel per module
+    BitMatrix matrix = qrWriter.encode(content, BarcodeFormat.QR_CODE, 0, 0, hints);
+
+    if(moduleScale > 0)
+    {
+      return QrCodePngEncoder.encode(matrix,
+        Math.min(moduleScale, QrCodePngEncoder.MAX_SCALE));
+    }
+
+    if(size < matrix.getWidth())
+    {
+      throw new IllegalArgumentException("QR code size " + size
+        + " below " + matrix.getWidth() + " pixels");
+    }
+    int scale = Math.min(size / matrix.getWidth(), QrCodePngEncoder.MAX_SCALE);
+    return QrCodePngEncoder.encode(matrix, scale, size);
+  }
+
+  /**
+   * Renders the QR code at module resolution as one SVG path of
+   * horizontal runs, scaled to the requested size by the viewBox.
+   */
+  private byte[] renderSvg(String content, int size)
+    throws WriterException
+  {
+    QRCodeWriter qrWriter = new QRCodeWriter();
+    // width and height 0 return the matrix with one pixel per module
+    BitMatrix matrix = qrWriter.encode(content, BarcodeFormat.QR_CODE, 0, 0, hints);
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+
+    StringBuilder svg = new StringBuilder(8192);
+    svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\"")
+      .append(" width=\"").append(size).append('"')
+      .append(" height=\"").append(size).append('"')
+      .append(" viewBox=\"0 0 ").append(width).append(' ').append(height).append('"')
+      .append(" shape-rendering=\"crispEdges\">")
+      .append("<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>")
+      .append("<path fill=\"#000\" d=\"");
+
+    for(int y = 0; y < height; y ++)
+    {
+      int x = 0;
+      while(x < width)
+      {
+        if(matrix.get(x, y))
+        {
+          int start = x;
+          while(x < width && matrix.get(x, y))
+          {
+            x ++;
+          }
+          svg.append('M').append(start).append(' ').append(y)
+            .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+        }
+        else
+        {
+          x ++;
+        }
+      }
+    }
+
+    svg.append("\"/></svg>");
+    return svg.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+/**
+ * Progress of a bulk re-verification of the stored signatures.
+ *
+ * @param jobId identifier of the job, also part of the report file name
+ * @param state RUNNING, COMPLETED or FAILED
+ * @param total number of signatures to verify
+ * @param processed signatures checked so far
+ * @param verified signatures whose JWS verified against the pad key
+ * @param failed signatures written to the failure report
+ * @param startedAt start time (epoch millis)
+ * @param finishedAt end time (epoch millis), 0 while running
+ * @param report path of the failure report
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record ReverificationProgress(
+  String jobId,
+  String state,
+  long total,
+  long processed,
+  long verified,
+  long failed,
+  long startedAt,
+  long finishedAt,
+  String report
+  )
+{
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import l9g.webapp.signaturepaddemo.service.SignaturePad;
+import l9g.webapp.signaturepaddemo.service.SignaturePadService;
+import l9g.webapp.signaturepaddemo.service.SignedJwtRecord;
+import l9g.webapp.signaturepaddemo.service.SignedJwtService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-verifies every signed JWT of the signature journal, and every
+ * {subject}.jwt file of the former layout still served by
+ * {@link SignedJwtService#loadSignedJWT(String)}, against the key of the
+ * signature pad named in its key ID. Failures of former layout files are
+ * reported with segment -1.
+ *
+ * <p>The journal is listed once, the signed JWTs are read and verified by a
+ * fixed number of worker threads fed through a bounded queue, so only a few
+ * JWTs are held in memory at any time. Verifiers are taken from the
+ * {@link AuthService} cache, one per key ID. Every signature which does not
+ * verify is written as one JSON line to the failure report.</p>
+ *
+ * <p>Only the current key of a signature pad is stored, signatures made with
+ * an earlier key are reported as {@code key-unavailable}.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class SignatureReverificationService
+{
+  public static final String STATE_RUNNING = "RUNNING";
+
+  public static final String STATE_COMPLETED = "COMPLETED";
+
+  public static final String STATE_FAILED = "FAILED";
+
+  /** Length of the pad UUID prefix of a key ID (uuid-version) */
+  private static final int PAD_UUID_LENGTH = 36;
+
+  private static final DateTimeFormatter JOB_ID_FORMAT =
+    DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+  private final SignedJwtService signedJwtService;
+
+  private final SignaturePadService signaturePadService;
+
+  private final AuthService authService;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Number of verification threads, 0 uses one per available processor */
+  @Value("${app.signature-audit.parallelism:0}")
+  private int parallelism;
+
+  /** Directory receiving the failure reports */
+  @Value("${app.signature-audit.report-dir:${user.home}/.signatureaudit}")
+  private String reportDir;
+
+  /** Number of processed signatures between two progress log lines */
+  @Value("${app.signature-audit.progress-interval:1000}")
+  private int progressInterval;
+
+  private volatile Job currentJob;
+
+  /**
+   * One line of the failure report.
+   */
+  private record Failure(
+    String subject,
+    long timestamp,
+    long segment,
+    long offset,
+    String kid,
+    String reason,
+    String message
+    )
+  {
+  }
+
+  private static final class Job
+  {
+    private final String id;
+
+    private final Path report;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    private final AtomicLong processed = new AtomicLong();
+
+    private final AtomicLong verified = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile long total;
+
+    private volatile long finishedAt;
+
+    private volatile String state = STATE_RUNNING;
+
+    private Job(String id, Path report)
+    {
+      this.id = id;
+      this.report = report;
+    }
+
+    private ReverificationProgress progress()
+    {
+      return new ReverificationProgress(id, state, total, processed.get(),
+        verified.get(), failed.get(), startedAt, finishedAt, report.toString());
+    }
+
+  }
+
+  /**
+   * Starts a re-verification of all stored signatures in the background.
+   * If a job is already running, its progress is returned instead.
+   *
+   * @return progress of the started or running job
+   * @throws IOException if the report directory can not be created
+   */
+  public synchronized ReverificationProgress start()
+    throws IOException
+  {
+    Job job = currentJob;
+    if(job != null && STATE_RUNNING.equals(job.state))
+    {
+      return job.progress();
+    }
+
+    Path dir = Paths.get(reportDir);
+    Files.createDirectories(dir);
+
+    // the report file is created here, a job started within the same
+    // millisecond as an earlier one gets a sequence number instead of
+    // overwriting its report
+    String timestamp = LocalDateTime.now().format(JOB_ID_FORMAT);
+    String id = timestamp;
+    Path report;
+    for(int sequence = 1;; sequence ++)
+    {
+      report = dir.resolve("reverify-" + id + "-failures.jsonl");
+      try
+      {
+        Files.createFile(report);
+        break;
+      }
+      catch(FileAlreadyExistsException e)
+      {
+        id = timestamp + "-" + sequence;
+      }
+    }
+    job = new Job(id, report);
+    currentJob = job;
+
+    final Job started = job;
+    Thread thread = new Thread(() -> run(started), "signature-reverify");
+    thread.setDaemon(true);
+    thread.start();
+
+    log.info("Signature re-verification {} started, report {}", id, job.report);
+    return job.progress();
+  }
+
+  /**
+   * @return progress of the current or last job, null if none was started
+   */
+  public ReverificationProgress getProgress()
+  {
+    Job job = currentJob;
+    return job != null ? job.progress() : null;
+  }
+
+  private void run(Job job)
+  {
+    int workers = parallelism > 0
+      ? parallelism : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(
+      workers, workers, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(workers * 4),
+      r ->
+    {
+      Thread thread = new Thread(r, "signature-reverify-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    },
+      new ThreadPoolExecutor.CallerRunsPolicy());
+
+    try(BufferedWriter report = Files.newBufferedWriter(job.report, StandardCharsets.UTF_8))
+    {
+      List<SignedJwtRecord> records = signedJwtService.listSignedJWTRecords();
+      job.total = records.size();
+      log.info("Signature re-verification {}: {} signatures, {} workers",
+        job.id, job.total, workers);
+
+      for(SignedJwtRecord record : records)
+      {
+        executor.execute(() -> verify(job, record, report));
+      }
+
+      executor.shutdown();
+      executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      job.state = STATE_COMPLETED;
+    }
+    catch(IOException | RuntimeException e)
+    {
+      log.error("Signature re-verification {} failed", job.id, e);
+      job.state = STATE_FAILED;
+    }
+    catch(InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      job.state = STATE_FAILED;
+    }
+    finally
+    {
+      executor.shutdownNow();
+      job.finishedAt = System.currentTimeMillis();
+    }
+
+    log.info("Signature re-verification {} {}: {} of {} verified, {} failed in {} ms",
+      job.id, job.state, job.verified.get(), job.total, job.failed.get(),
+      job.finishedAt - job.startedAt);
+  }
+
+  private void verify(Job job, SignedJwtRecord record, BufferedWriter report)
+  {
+    String kid = null;
+    String reason = null;
+    String message = null;
+
+    try
+    {
+      SignedJWT signedJwt = SignedJWT.parse(signedJwtService.loadSignedJWT(record));
+      kid = signedJwt.getHeader().getKeyID();
+
+      SignaturePad signaturePad = null;
+      if(kid != null && kid.length() > PAD_UUID_LENGTH)
+      {
+        signaturePad = signaturePadService.getSignaturePadByUUID(
+          kid.substring(0, PAD_UUID_LENGTH));
+      }
+
+      if(kid == null)
+      {
+        reason = "missing-kid";
+      }
+      else if(signaturePad == null || signaturePad.getPublicJwk() == null)
+      {
+        reason = "unknown-pad";
+      }
+      else if( ! kid.equals(signaturePad.getKeyId()))
+      {
+        reason = "key-unavailable";
+        message = "current key is " + signaturePad.getKeyId();
+      }
+      else if( ! signedJwt.verify(authService.getVerifier(signaturePad, kid)))
+      {
+        reason = "invalid-signature";
+      }
+    }
+    catch(IOException e)
+    {
+      reason = "read-error";
+      message = e.getMessage();
+    }
+    catch(ParseException e)
+    {
+      reason = "malformed";
+      message = e.getMessage();
+    }
+    catch(JOSEException | RuntimeException e)
+    {
+      reason = "verification-error";
+      message = e.getMessage();
+    }
+
+    if(reason == null)
+    {
+      job.verified.incrementAndGet();
+    }
+    else
+    {
+      job.failed.incrementAndGet();
+      writeFailure(report, new Failure(record.subject(), record.timestamp(),
+        record.segment(), record.offset(), kid, reason, message));
+    }
+
+    long processed = job.processed.incrementAndGet();
+    if(progressInterval > 0 && processed % progressInterval == 0)
+    {
+      log.info("Signature re-verification {}: {}/{} processed, {} failed",
+        job.id, processed, job.total, job.failed.get());
+    }
+  }
+
+  private void writeFailure(BufferedWriter report, Failure failure)
+  {
+    try
+    {
+      String line = objectMapper.writeValueAsString(failure);
+      synchronized(report)
+      {
+        report.write(line);
+        report.newLine();
+      }
+    }
+    catch(IOException e)
+    {
+      log.error("can't write re-verification report", e);
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import l9g.webapp.signaturepaddemo.service.StrokeCodec;
+
+/**
+ * Typed view of a verified signature pad JWT. The claims set is parsed once;
+ * the large image claims are kept as base64 text and only decoded on request.
+ * Binary submissions carry the SHA-256 digests of the images instead,
+ * stroke submissions the base64url encoded vector data ({@code sigstrokes}).
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record SignatureSubmission(
+  String kid,
+  String issuer,
+  String subject,
+  Instant issueTime,
+  String sigpad,
+  String name,
+  String mail,
+  String sigpngBase64,
+  String sigsvgBase64,
+  String sigpngSha256,
+  String sigsvgSha256,
+  String sigstrokes,
+  Map<String, Object> publicJwk,
+  Map<String, Object> clientEnvironment
+  )
+  {
+
+  /**
+   * Extracts all claims used by the signature pad API from a signed JWT.
+   *
+   * @param signedJWT the parsed and verified JWT
+   * @return the typed submission
+   * @throws ParseException if the claims set can not be parsed
+   */
+  public static SignatureSubmission of(SignedJWT signedJWT)
+    throws ParseException
+  {
+    JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+    return new SignatureSubmission(
+      signedJWT.getHeader().getKeyID(),
+      claims.getIssuer(),
+      claims.getSubject(),
+      claims.getIssueTime() != null ? claims.getIssueTime().toInstant() : null,
+      claims.getStringClaim("sigpad"),
+      claims.getStringClaim("name"),
+      claims.getStringClaim("mail"),
+      claims.getStringClaim("sigpng"),
+      claims.getStringClaim("sigsvg"),
+      claims.getStringClaim("sigpng_sha256"),
+      claims.getStringClaim("sigsvg_sha256"),
+      claims.getStringClaim("sigstrokes"),
+      claims.getJSONObjectClaim("publicJwk"),
+      claims.getJSONObjectClaim("clientEnvironment")
+    );
+  }
+
+  /**
+   * @return the decoded PNG signature image or null if not present
+   */
+  public byte[] sigpng()
+  {
+    return sigpngBase64 != null ? Base64.getDecoder().decode(sigpngBase64) : null;
+  }
+
+  /**
+   * @return the decoded SVG signature image or null if not present
+   */
+  public byte[] sigsvg()
+  {
+    return sigsvgBase64 != null ? Base64.getDecoder().decode(sigsvgBase64) : null;
+  }
+
+  /**
+   * @return the binary stroke data (see {@link StrokeCodec}) or null if not present
+   */
+  public byte[] strokes()
+  {
+    return sigstrokes != null ? Base64.getUrlDecoder().decode(sigstrokes) : null;
+  }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Reads compact JWS request bodies with an upper size limit.
+ * Oversized requests are rejected from the Content-Length header before
+ * any buffering; bodies without a length are cut off at the limit.
+ *
+ * <p>Nimbus only parses a JWS from a {@link String}, so the body is still
+ * copied on its way to the claims: the byte buffer, the Latin-1 string made
+ * from it, the Base64URL parts Nimbus splits off that string, and the
+ * decoded payload with its JSON claims. Bodies with a Content-Length are
+ * read into one right-sized buffer, others grow by doubling.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Slf4j
+@Component
+public class SignatureSubmissionReader
+{
+  /** Maximum accepted size of a signature JWT in bytes */
+  @Value("${app.signature-pad.max-jwt-size:2097152}")
+  private int maxJwtSize;
+
+  /**
+   * @return maximum accepted size of a signature JWT in bytes
+   */
+  public int getMaxJwtSize()
+  {
+    return maxJwtSize;
+  }
+
+  /**
+   * Reads the request body as compact JWS.
+   *
+   * @param request the HTTP request
+   * @return the compact JWS
+   * @throws IOException if reading the request body fails
+   * @throws ResponseStatusException if the body exceeds the size limit or is empty
+   */
+  public String readCompactJwt(HttpServletRequest request)
+    throws IOException
+  {
+    long contentLength = request.getContentLengthLong();
+
+    if(contentLength > maxJwtSize)
+    {
+      log.warn("Rejected JWT of {} bytes, limit is {}", contentLength, maxJwtSize);
+      throw payloadTooLarge();
+    }
+
+    byte[] buffer = new byte[contentLength > 0
+      ? (int)contentLength : Math.min(8192, maxJwtSize)];
+    int length = 0;
+
+    try(InputStream in = request.getInputStream())
+    {
+      while(true)
+      {
+        if(length == buffer.length)
+        {
+          // buffer full, only grow if the body really continues
+          int next = in.read();
+          if(next < 0)
+          {
+            break;
+          }
+          if(length >= maxJwtSize)
+          {
+            throw payloadTooLarge();
+          }
+          buffer = Arrays.copyOf(buffer, (int)Math.min(2L * length, maxJwtSize));
+          buffer[length ++] = (byte)next;
+        }
+
+        int n = in.read(buffer, length, buffer.length - length);
+        if(n < 0)
+        {
+          break;
+        }
+        length += n;
+      }
+    }
+
+    if(length == 0)
+    {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Empty JWT");
+    }
+
+    // trimmed on the buffer, so the string is the only copy made here
+    int start = 0;
+    while(start < length && buffer[start] <= ' ')
+    {
+      start ++;
+    }
+    while(length > start && buffer[length - 1] <= ' ')
+    {
+      length --;
+    }
+
+    // a compact JWS is plain ASCII, kept as a compact Latin-1 string
+    return new String(buffer, start, length - start, StandardCharsets.US_ASCII);
+  }
+
+  private ResponseStatusException payloadTooLarge()
+  {
+    return new ResponseStatusException(
+      HttpStatus.PAYLOAD_TOO_LARGE,
+      "Signature JWT exceeds " + maxJwtSize + " bytes"
+    );
+  }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Guards binary signature submissions before the multipart body is read.
+ * The signature pad is authenticated from its SIGNATURE_PAD_UUID header,
+ * and the body may not be larger than a signature JWT with embedded images,
+ * so unauthenticated or oversized requests are never buffered. Bodies
+ * without a Content-Length are answered with 411.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SignatureUploadFilter extends OncePerRequestFilter
+{
+  private static final String SIGNATURE_PATH = "/api/v1/signature-pad/signature";
+
+  /** Allowance for multipart boundaries and part headers */
+  private static final long MULTIPART_OVERHEAD = 65536;
+
+  private final AuthService authService;
+
+  private final SignatureSubmissionReader signatureSubmissionReader;
+
+  @Override
+  protected boolean shouldNotFilter(@NonNull HttpServletRequest request)
+  {
+    String contentType = request.getContentType();
+    return  ! ("POST".equals(request.getMethod())
+      && SIGNATURE_PATH.equals(request.getServletPath())
+      && contentType != null
+      && contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+  }
+
+  @Override
+  protected void doFilterInternal(
+    @NonNull HttpServletRequest request,
+    @NonNull HttpServletResponse response,
+    @NonNull FilterChain filterChain)
+    throws ServletException, IOException
+  {
+    String padUuid = request.getHeader("SIGNATURE_PAD_UUID");
+    if(padUuid == null)
+    {
+      response.sendError(HttpStatus.BAD_REQUEST.value(),
+        "SIGNATURE_PAD_UUID header missing");
+      return;
+    }
+
+    try
+    {
+      authService.authCheck(padUuid, true);
+    }
+    catch(ResponseStatusException e)
+    {
+      log.warn("Binary signature rejected: {}", e.getReason());
+      response.sendError(e.getStatusCode().value(), e.getReason());
+      return;
+    }
+
+    long contentLength = request.getContentLengthLong();
+    if(contentLength < 0)
+    {
+      response.sendError(HttpStatus.LENGTH_REQUIRED.value(),
+        "Content-Length required");
+      return;
+    }
+
+    if(contentLength > signatureSubmissionReader.getMaxJwtSize() + MULTIPART_OVERHEAD)
+    {
+      log.warn("Binary signature rejected, {} bytes announced", contentLength);
+      response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(),
+        "Signature exceeds maximum size");
+      return;
+    }
+
+    filterChain.doFilter(request, response);
+  }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+/**
+ * Snapshot of the currently loaded card index.
+ *
+ * @param records number of card numbers in the index
+ * @param rejected number of export records without a valid card number
+ * @param capacity number of slots of the hash table
+ * @param indexBytes heap bytes used by the hash table
+ * @param dataBytes heap bytes used by the export records
+ * @param loadMillis time in milliseconds taken to load the export
+ * @param loadedAt epoch milliseconds of the last successful load
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record CardIndexStatistics(
+  int records,
+  int rejected,
+  int capacity,
+  long indexBytes,
+  long dataBytes,
+  long loadMillis,
+  long loadedAt
+  )
+{
+}
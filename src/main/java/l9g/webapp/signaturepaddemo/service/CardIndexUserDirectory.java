@@ -0,0 +1,471 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import l9g.webapp.signaturepaddemo.dto.DtoUserInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * User directory backed by a card holder export of the campus card system.
+ *
+ * <p>The export is either a CSV file with a header line and the columns
+ * cardNumber, uid, firstname, lastname, mail, birthday separated by
+ * {@code ;} or {@code ,}, or a JSON array of {@link DtoUserInfo} objects with
+ * an additional cardNumber property. The export is kept in memory as is and
+ * indexed by a {@link CardNumberIndex}, records are only decoded when a card
+ * holder is looked up.</p>
+ *
+ * <p>CSV fields may be enclosed in double quotes, a doubled quote inside a
+ * quoted field stands for one quote. Records spanning several lines are
+ * rejected.</p>
+ *
+ * <p>The file is checked for changes periodically. A changed export is
+ * loaded once its modification time and size have been stable for one
+ * check interval, into a new index which replaces the current one
+ * atomically; if loading fails or the file changes while it is read, the
+ * current index stays in place. Exports should nevertheless be replaced by
+ * renaming a completely written file.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.user-directory.type", havingValue = "index")
+public class CardIndexUserDirectory implements UserDirectory
+{
+  private final ObjectMapper objectMapper = new ObjectMapper()
+    .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+  /** Card holder export, CSV or JSON */
+  @Value("${app.card-index.file}")
+  private String exportFile;
+
+  /** Interval in milliseconds between checks for a changed export */
+  @Value("${app.card-index.reload-interval:30000}")
+  private long reloadInterval;
+
+  /** Currently active export and index, replaced as a whole on reload */
+  private volatile Snapshot snapshot;
+
+  private ScheduledExecutorService reloadExecutor;
+
+  /** Modification time and size of a changed export seen by the last check */
+  private long pendingLastModified = -1;
+
+  private long pendingFileSize = -1;
+
+  private record Snapshot(
+    long generation,
+    CardNumberIndex index,
+    byte[] data,
+    boolean json,
+    String separator,
+    long lastModified,
+    long fileSize,
+    CardIndexStatistics statistics
+    )
+    {
+  }
+
+  /**
+   * Loads the export and starts watching it for changes.
+   *
+   * @throws IOException if the export can not be loaded
+   */
+  @PostConstruct
+  public void init()
+    throws IOException
+  {
+    snapshot = load(Paths.get(exportFile), 1);
+
+    if(reloadInterval > 0)
+    {
+      reloadExecutor = Executors.newSingleThreadScheduledExecutor(r ->
+      {
+        Thread thread = new Thread(r, "card-index-reload");
+        thread.setDaemon(true);
+        return thread;
+      });
+      reloadExecutor.scheduleWithFixedDelay(this::reloadIfChanged,
+        reloadInterval, reloadInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops watching the export.
+   */
+  @PreDestroy
+  public void close()
+  {
+    if(reloadExecutor != null)
+    {
+      reloadExecutor.shutdownNow();
+    }
+  }
+
+  @Override
+  public boolean contains(String cardNumber)
+  {
+    return snapshot.index().find(CardNumberIndex.pack(cardNumber))
+      != CardNumberIndex.NOT_FOUND;
+  }
+
+  @Override
+  public DtoUserInfo findByCardNumber(String cardNumber)
+    throws IOException
+  {
+    Snapshot current = snapshot;
+    long location = current.index().find(CardNumberIndex.pack(cardNumber));
+
+    if(location == CardNumberIndex.NOT_FOUND)
+    {
+      return null;
+    }
+
+    int offset = CardNumberIndex.recordOffset(location);
+    int length = CardNumberIndex.recordLength(location);
+
+    if(current.json())
+    {
+      return objectMapper.readValue(current.data(), offset, length, DtoUserInfo.class);
+    }
+
+    String[] columns = splitCsv(new String(current.data(), offset, length,
+      StandardCharsets.UTF_8), current.separator().charAt(0));
+
+    return new DtoUserInfo(null,
+      column(columns, 2), column(columns, 3), column(columns, 1),
+      column(columns, 4), column(columns, 5), null, null);
+  }
+
+  @Override
+  public long getGeneration()
+  {
+    return snapshot.generation();
+  }
+
+  /**
+   * @return figures of the currently loaded index
+   */
+  public CardIndexStatistics getStatistics()
+  {
+    return snapshot.statistics();
+  }
+
+  /**
+   * Replaces the index if the export has been modified since it was loaded
+   * and has not changed since the previous check.
+   */
+  synchronized void reloadIfChanged()
+  {
+    Path file = Paths.get(exportFile);
+    try
+    {
+      Snapshot current = snapshot;
+      long lastModified = Files.getLastModifiedTime(file).toMillis();
+      long fileSize = Files.size(file);
+
+      if(lastModified == current.lastModified() && fileSize == current.fileSize())
+      {
+        pendingLastModified = -1;
+        pendingFileSize = -1;
+        return;
+      }
+
+      if(lastModified != pendingLastModified || fileSize != pendingFileSize)
+      {
+        // may still be written, wait until it is unchanged for one interval
+        log.debug("Card index export changed, waiting for it to settle {}", file);
+        pendingLastModified = lastModified;
+        pendingFileSize = fileSize;
+        return;
+      }
+
+      log.info("Card index export changed, reloading {}", file);
+      snapshot = load(file, current.generation() + 1);
+      pendingLastModified = -1;
+      pendingFileSize = -1;
+    }
+    catch(IOException | RuntimeException e)
+    {
+      log.error("Card index reload failed, keeping current index", e);
+    }
+  }
+
+  private Snapshot load(Path file, long generation)
+    throws IOException
+  {
+    long start = System.nanoTime();
+    long lastModified = Files.getLastModifiedTime(file).toMillis();
+    byte[] data = Files.readAllBytes(file);
+
+    if(Files.getLastModifiedTime(file).toMillis() != lastModified
+      || Files.size(file) != data.length)
+    {
+      throw new IOException("Card index export changed while loading: " + file);
+    }
+    boolean json = file.getFileName().toString().toLowerCase().endsWith(".json");
+
+    String separator = json ? null : csvSeparator(data);
+
+    CardNumberIndex.Builder builder = new CardNumberIndex.Builder();
+    int rejected = json
+      ? indexJson(data, builder) : indexCsv(data, separator, builder);
+    CardNumberIndex index = builder.build();
+
+    long loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    CardIndexStatistics statistics = new CardIndexStatistics(
+      index.size(), rejected, index.capacity(), index.memoryBytes(),
+      data.length, loadMillis, System.currentTimeMillis());
+
+    log.info("Card index loaded from {}: {} cards ({} rejected) in {} ms, "
+      + "index {} KiB, export {} KiB",
+      file, index.size(), rejected, loadMillis,
+      index.memoryBytes() / 1024, data.length / 1024);
+
+    return new Snapshot(generation, index, data, json, separator,
+      lastModified, data.length, statistics);
+  }
+
+  /**
+   * Indexes every line after the header by its first column.
+   */
+  private static int indexCsv(
+    byte[] data, String separatorString, CardNumberIndex.Builder builder)
+  {
+    byte separator = (byte)separatorString.charAt(0);
+    int rejected = 0;
+    int lineStart = nextLine(data, 0); // skip header
+
+    while(lineStart < data.length)
+    {
+      int lineEnd = lineStart;
+      while(lineEnd < data.length && data[lineEnd] != '\n' && data[lineEnd] != '\r')
+      {
+        lineEnd ++;
+      }
+
+      if(lineEnd > lineStart)
+      {
+        int quotes = 0;
+        for(int i = lineStart; i < lineEnd; i ++)
+        {
+          if(data[i] == '"')
+          {
+            quotes ++;
+          }
+        }
+
+        int keyStart = lineStart;
+        int keyEnd;
+        if(data[keyStart] == '"')
+        {
+          keyStart ++;
+          keyEnd = keyStart;
+          while(keyEnd < lineEnd && data[keyEnd] != '"')
+          {
+            keyEnd ++;
+          }
+        }
+        else
+        {
+          keyEnd = keyStart;
+          while(keyEnd < lineEnd && data[keyEnd] != separator)
+          {
+            keyEnd ++;
+          }
+        }
+
+        long key = CardNumberIndex.pack(data, keyStart, keyEnd - keyStart);
+        if(key == CardNumberIndex.NOT_FOUND
+          || quotes % 2 != 0
+          || lineEnd - lineStart > CardNumberIndex.MAX_RECORD_LENGTH)
+        {
+          rejected ++;
+        }
+        else
+        {
+          builder.add(key, lineStart, lineEnd - lineStart);
+        }
+      }
+
+      lineStart = nextLine(data, lineEnd);
+    }
+
+    return rejected;
+  }
+
+  /**
+   * Indexes every object of the top level array by its cardNumber property.
+   */
+  private int indexJson(byte[] data, CardNumberIndex.Builder builder)
+    throws IOException
+  {
+    JsonFactory factory = objectMapper.getFactory();
+    int rejected = 0;
+
+    try(JsonParser parser = factory.createParser(data))
+    {
+      if(parser.nextToken() != JsonToken.START_ARRAY)
+      {
+        throw new IOException("Card index export must be a JSON array");
+      }
+
+      while(parser.nextToken() == JsonToken.START_OBJECT)
+      {
+        int start = (int)parser.currentTokenLocation().getByteOffset();
+        String cardNumber = null;
+
+        while(parser.nextToken() == JsonToken.FIELD_NAME)
+        {
+          String name = parser.currentName();
+          JsonToken value = parser.nextToken();
+          if("cardNumber".equals(name) && value == JsonToken.VALUE_STRING)
+          {
+            cardNumber = parser.getText();
+          }
+          else
+          {
+            parser.skipChildren();
+          }
+        }
+
+        int end = (int)parser.currentLocation().getByteOffset();
+        long key = CardNumberIndex.pack(cardNumber);
+        if(key == CardNumberIndex.NOT_FOUND
+          || end - start > CardNumberIndex.MAX_RECORD_LENGTH)
+        {
+          rejected ++;
+        }
+        else
+        {
+          builder.add(key, start, end - start);
+        }
+      }
+    }
+
+    return rejected;
+  }
+
+  private static int nextLine(byte[] data, int position)
+  {
+    while(position < data.length && data[position] != '\n')
+    {
+      position ++;
+    }
+    return position + 1;
+  }
+
+  /**
+   * The separator is taken from the header line.
+   */
+  private static String csvSeparator(byte[] data)
+  {
+    for(byte b : data)
+    {
+      if(b == ';')
+      {
+        return ";";
+      }
+      if(b == ',' || b == '\n')
+      {
+        break;
+      }
+    }
+    return ",";
+  }
+
+  /**
+   * Splits a CSV record into its columns. Fields may be enclosed in double
+   * quotes, a doubled quote inside a quoted field stands for one quote.
+   */
+  static String[] splitCsv(String line, char separator)
+  {
+    List<String> columns = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+
+    for(int i = 0; i < line.length(); i ++)
+    {
+      char c = line.charAt(i);
+      if(quoted)
+      {
+        if(c == '"')
+        {
+          if(i + 1 < line.length() && line.charAt(i + 1) == '"')
+          {
+            field.append('"');
+            i ++;
+          }
+          else
+          {
+            quoted = false;
+          }
+        }
+        else
+        {
+          field.append(c);
+        }
+      }
+      else if(c == '"')
+      {
+        quoted = true;
+      }
+      else if(c == separator)
+      {
+        columns.add(field.toString());
+        field.setLength(0);
+      }
+      else
+      {
+        field.append(c);
+      }
+    }
+
+    columns.add(field.toString());
+    return columns.toArray(String[]::new);
+  }
+
+  private static String column(String[] columns, int index)
+  {
+    if(index >= columns.length || columns[index].isBlank())
+    {
+      return null;
+    }
+    return columns[index].trim();
+  }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import java.util.Arrays;
+
+/**
+ * Immutable open addressing hash index from card numbers to record
+ * locations. Card numbers are packed into a long, record locations are
+ * packed as offset and length into a second long, so the whole index
+ * consists of two primitive arrays and a lookup allocates nothing.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+final class CardNumberIndex
+{
+  /** Number of digits of a card number */
+  static final int CARD_DIGITS = 12;
+
+  /** Returned for unknown or invalid card numbers */
+  static final long NOT_FOUND = -1L;
+
+  private static final long EMPTY = -1L;
+
+  private static final int LENGTH_BITS = 24;
+
+  /** Largest record length that can be addressed */
+  static final int MAX_RECORD_LENGTH = (1 << LENGTH_BITS) - 1;
+
+  private final long[] keys;
+
+  private final long[] locations;
+
+  private final int mask;
+
+  private final int size;
+
+  private CardNumberIndex(long[] keys, long[] locations, int size)
+  {
+    this.keys = keys;
+    this.locations = locations;
+    this.mask = keys.length - 1;
+    this.size = size;
+  }
+
+  /**
+   * Packs a card number into a long.
+   *
+   * @param cardNumber the card number, exactly {@link #CARD_DIGITS} digits
+   * @return the packed card number or {@link #NOT_FOUND} if it is invalid
+   */
+  static long pack(CharSequence cardNumber)
+  {
+    if(cardNumber == null || cardNumber.length() != CARD_DIGITS)
+    {
+      return NOT_FOUND;
+    }
+    long key = 0;
+    for(int i = 0; i < CARD_DIGITS; i ++)
+    {
+      char c = cardNumber.charAt(i);
+      if(c < '0' || c > '9')
+      {
+        return NOT_FOUND;
+      }
+      key = key * 10 + (c - '0');
+    }
+    return key;
+  }
+
+  /**
+   * Packs a card number given as ASCII digits.
+   *
+   * @param data buffer holding the card number
+   * @param offset start of the card number
+   * @param length length of the card number
+   * @return the packed card number or {@link #NOT_FOUND} if it is invalid
+   */
+  static long pack(byte[] data, int offset, int length)
+  {
+    if(length != CARD_DIGITS)
+    {
+      return NOT_FOUND;
+    }
+    long key = 0;
+    for(int i = offset; i < offset + length; i ++)
+    {
+      byte c = data[i];
+      if(c < '0' || c > '9')
+      {
+        return NOT_FOUND;
+      }
+      key = key * 10 + (c - '0');
+    }
+    return key;
+  }
+
+  static int recordOffset(long location)
+  {
+    return (int)(location >>> LENGTH_BITS);
+  }
+
+  static int recordLength(long location)
+  {
+    return (int)(location & MAX_RECORD_LENGTH);
+  }
+
+  /**
+   * Looks up the record location of a packed card number.
+   *
+   * @param key the packed card number
+   * @return the record location or {@link #NOT_FOUND}
+   */
+  long find(long key)
+  {
+    if(key < 0)
+    {
+      return NOT_FOUND;
+    }
+    int slot = hash(key) & mask;
+    while(true)
+    {
+      long k = keys[slot];
+      if(k == key)
+      {
+        return locations[slot];
+      }
+      if(k == EMPTY)
+      {
+        return NOT_FOUND;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * @return number of card numbers in the index
+   */
+  int size()
+  {
+    return size;
+  }
+
+  /**
+   * @return number of slots of the hash table
+   */
+  int capacity()
+  {
+    return keys.length;
+  }
+
+  /**
+   * @return heap bytes used by the hash table
+   */
+  long memoryBytes()
+  {
+    return 2L * Long.BYTES * keys.length;
+  }
+
+  private static int hash(long key)
+  {
+    // murmur3 finalizer
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return (int)key;
+  }
+
+  /**
+   * Collects card numbers and record locations. A card number added more
+   * than once points to its last record.
+   */
+  static final class Builder
+  {
+    private long[] keys = new long[1024];
+
+    private long[] locations = new long[1024];
+
+    private int count;
+
+    /**
+     * @param key the packed card number
+     * @param offset start of the record
+     * @param length length of the record
+     */
+    void add(long key, int offset, int length)
+    {
+      if(key < 0 || offset < 0 || length < 0 || length > MAX_RECORD_LENGTH)
+      {
+        throw new IllegalArgumentException("Invalid card index entry");
+      }
+      if(count == keys.length)
+      {
+        keys = Arrays.copyOf(keys, count * 2);
+        locations = Arrays.copyOf(locations, count * 2);
+      }
+      keys[count] = key;
+      locations[count] = ((long)offset << LENGTH_BITS) | length;
+      count ++;
+    }
+
+    /**
+     * Builds the hash table with a load factor of at most one half.
+     */
+    CardNumberIndex build()
+    {
+      int capacity = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+      long[] tableKeys = new long[capacity];
+      long[] tableLocations = new long[capacity];
+      Arrays.fill(tableKeys, EMPTY);
+
+      int mask = capacity - 1;
+      int size = 0;
+      for(int i = 0; i < count; i ++)
+      {
+        int slot = hash(keys[i]) & mask;
+        while(tableKeys[slot] != EMPTY && tableKeys[slot] != keys[i])
+        {
+          slot = (slot + 1) & mask;
+        }
+        if(tableKeys[slot] == EMPTY)
+        {
+          size ++;
+        }
+        tableKeys[slot] = keys[i];
+        tableLocations[slot] = locations[i];
+      }
+      return new CardNumberIndex(tableKeys, tableLocations, size);
+    }
+
+  }
+
+}
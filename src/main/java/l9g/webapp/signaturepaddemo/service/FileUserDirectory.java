@@ -0,0 +1,108 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.regex.Pattern;
+import l9g.webapp.signaturepaddemo.dto.DtoUserInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * User directory reading card holders from a local directory, intended for
+ * testing with own data. Each card holder is stored as
+ * {storeDir}/{cardNumber}.json in the {@link DtoUserInfo} format. If the JSON
+ * has no photo, an optional {storeDir}/{cardNumber}.jpg is used instead.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.user-directory.type", havingValue = "file")
+public class FileUserDirectory implements UserDirectory
+{
+  private static final Pattern CARD_NUMBER = Pattern.compile("[0-9A-Za-z]{1,32}");
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Directory path holding the card holder files */
+  @Value("${app.user-directory.store-dir:${user.home}/.signatureusers}")
+  private String storeDir;
+
+  /**
+   * Creates the user directory if it doesn't exist.
+   *
+   * @throws IOException if directory creation fails
+   */
+  @PostConstruct
+  public void init()
+    throws IOException
+  {
+    Path dir = Paths.get(storeDir);
+    if(Files.notExists(dir))
+    {
+      Files.createDirectories(dir);
+      log.info("Created user directory: {}", dir);
+    }
+  }
+
+  @Override
+  public boolean contains(String cardNumber)
+  {
+    return cardNumber != null && CARD_NUMBER.matcher(cardNumber).matches()
+      && Files.exists(Paths.get(storeDir, cardNumber + ".json"));
+  }
+
+  @Override
+  public DtoUserInfo findByCardNumber(String cardNumber)
+    throws IOException
+  {
+    if(cardNumber == null ||  ! CARD_NUMBER.matcher(cardNumber).matches())
+    {
+      return null;
+    }
+
+    Path file = Paths.get(storeDir, cardNumber + ".json");
+    if(Files.notExists(file))
+    {
+      return null;
+    }
+
+    DtoUserInfo userInfo = objectMapper.readValue(file.toFile(), DtoUserInfo.class);
+    log.debug("User loaded: {}", file.toAbsolutePath());
+
+    Path photo = Paths.get(storeDir, cardNumber + ".jpg");
+    if(userInfo.jpegPhoto() == null && Files.exists(photo))
+    {
+      userInfo = new DtoUserInfo(
+        "data:image/jpeg;base64,"
+        + Base64.getEncoder().encodeToString(Files.readAllBytes(photo)),
+        userInfo.firstname(), userInfo.lastname(), userInfo.uid(),
+        userInfo.mail(), userInfo.birthday(), userInfo.semster(), userInfo.home());
+    }
+
+    return userInfo;
+  }
+
+}
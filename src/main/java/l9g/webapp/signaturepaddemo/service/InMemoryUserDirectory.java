@@ -0,0 +1,90 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import l9g.webapp.signaturepaddemo.dto.DtoAddress;
+import l9g.webapp.signaturepaddemo.dto.DtoUserInfo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+/**
+ * User directory holding the bundled demo card holder in memory.
+ * The profile photo is read and encoded once at startup.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.user-directory.type", havingValue = "demo",
+                       matchIfMissing = true)
+public class InMemoryUserDirectory implements UserDirectory
+{
+  /** Card number of the demo user */
+  public static final String DEMO_CARD_NUMBER = "091600045759";
+
+  private final Map<String, DtoUserInfo> usersByCardNumber = new HashMap<>();
+
+  /**
+   * Creates the demo card holder.
+   *
+   * @throws IOException if the demo photo can not be read
+   */
+  @PostConstruct
+  public void init()
+    throws IOException
+  {
+    // Create demo address information
+    DtoAddress semester = new DtoAddress(
+      "c/o M. Maier", "Musterstr. Str 1701", "38302", "Wolfenbüttel",
+      "Niedersachsen", "Deutschland");
+    DtoAddress home = new DtoAddress(
+      null, "Neuer Weg 4711", "38302", "Wolfenbüttel",
+      "Niedersachsen", "Deutschland");
+
+    // Load and encode demo profile photo
+    String jpegPhoto;
+    ClassPathResource imgFile = new ClassPathResource("demo/MarieMuster.jpg");
+
+    try(InputStream is = imgFile.getInputStream())
+    {
+      byte[] imageBytes = is.readAllBytes();
+      String base64 = Base64.getEncoder().encodeToString(imageBytes);
+      jpegPhoto = "data:image/jpeg;base64," + base64;
+    }
+
+    usersByCardNumber.put(DEMO_CARD_NUMBER, new DtoUserInfo(
+      jpegPhoto, "Marie", "Muster", "user123", "m.muster@the.net",
+      "01.01.2005", semester, home));
+
+    log.info("In-memory user directory with {} demo user(s)",
+      usersByCardNumber.size());
+  }
+
+  @Override
+  public DtoUserInfo findByCardNumber(String cardNumber)
+  {
+    return usersByCardNumber.get(cardNumber);
+  }
+
+}
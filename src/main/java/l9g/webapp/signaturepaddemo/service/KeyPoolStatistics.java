@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+/**
+ * Gauges and counters of the signature pad key pool.
+ *
+ * @param keyType type of the pooled key pairs
+ * @param depth key pairs ready in the pool
+ * @param targetSize number of key pairs the pool is refilled to
+ * @param generated key pairs generated in the background
+ * @param generatedInline key pairs generated on the request thread because
+ * the pool was empty
+ * @param taken key pairs handed out
+ * @param generationNanos total time spent generating key pairs
+ * @param maxGenerationNanos longest time a single key pair took
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record KeyPoolStatistics(
+  String keyType,
+  int depth,
+  int targetSize,
+  long generated,
+  long generatedInline,
+  long taken,
+  long generationNanos,
+  long maxGenerationNanos
+  )
+{
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.EdECPrivateKey;
+import java.security.interfaces.EdECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+
+/**
+ * Key types a signature pad can be provisioned with.
+ *
+ * <p>Ed25519 keys are converted with the JDK only, nimbus-jose-jwt needs
+ * Google Tink just for its own Ed25519 signer and verifier.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public enum PadKeyType
+{
+  /** RSA 2048 bit, signed with RS256 */
+  RSA(JWSAlgorithm.RS256),
+  /** EC P-256, signed with ES256 */
+  EC(JWSAlgorithm.ES256),
+  /** Ed25519, signed with EdDSA */
+  ED25519(JWSAlgorithm.EdDSA);
+
+  /** Length of the X.509 encoding of an Ed25519 public key */
+  private static final int ED25519_X509_LENGTH = 44;
+
+  /** Length of a raw Ed25519 public key */
+  private static final int ED25519_KEY_LENGTH = 32;
+
+  private final JWSAlgorithm algorithm;
+
+  PadKeyType(JWSAlgorithm algorithm)
+  {
+    this.algorithm = algorithm;
+  }
+
+  /**
+   * @return the JWS algorithm used with this key type
+   */
+  public JWSAlgorithm getAlgorithm()
+  {
+    return algorithm;
+  }
+
+  /**
+   * Generates a new key pair of this type.
+   *
+   * @return a new key pair
+   * @throws NoSuchAlgorithmException if the key algorithm is not available
+   */
+  public KeyPair generateKeyPair()
+    throws NoSuchAlgorithmException
+  {
+    KeyPairGenerator keyGen;
+    switch(this)
+    {
+      case EC ->
+      {
+        keyGen = KeyPairGenerator.getInstance("EC");
+        try
+        {
+          keyGen.initialize(new ECGenParameterSpec("secp256r1"));
+        }
+        catch(InvalidAlgorithmParameterException e)
+        {
+          throw new NoSuchAlgorithmException("P-256 not available", e);
+        }
+      }
+      case ED25519 -> keyGen = KeyPairGenerator.getInstance("Ed25519");
+      default ->
+      {
+        keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+      }
+    }
+    return keyGen.generateKeyPair();
+  }
+
+  /**
+   * Builds the private JWK of a key pair of this type.
+   *
+   * @param keyPair a key pair generated by {@link #generateKeyPair()}
+   * @param kid the key ID of the JWK
+   * @return the JWK containing public and private key
+   */
+  public JWK toPrivateJWK(KeyPair keyPair, String kid)
+  {
+    return switch(this)
+    {
+      case EC -> new ECKey.Builder(Curve.P_256, (ECPublicKey)keyPair.getPublic())
+        .privateKey((ECPrivateKey)keyPair.getPrivate())
+        .keyUse(KeyUse.SIGNATURE)
+        .algorithm(algorithm)
+        .keyID(kid)
+        .build();
+      case ED25519 -> new OctetKeyPair.Builder(Curve.Ed25519,
+        Base64URL.encode(rawEd25519PublicKey(keyPair.getPublic())))
+        .d(Base64URL.encode(((EdECPrivateKey)keyPair.getPrivate()).getBytes()
+          .orElseThrow(() -> new IllegalArgumentException(
+          "Ed25519 private key is not extractable"))))
+        .keyUse(KeyUse.SIGNATURE)
+        .algorithm(algorithm)
+        .keyID(kid)
+        .build();
+      default -> new RSAKey.Builder((RSAPublicKey)keyPair.getPublic())
+        .privateKey((RSAPrivateKey)keyPair.getPrivate())
+        .keyUse(KeyUse.SIGNATURE)
+        .algorithm(algorithm)
+        .keyID(kid)
+        .build();
+    };
+  }
+
+  /**
+   * Determines the key type of a public key.
+   *
+   * @param publicKey the public key
+   * @return the matching key type
+   * @throws IllegalArgumentException if the key type is not supported
+   */
+  public static PadKeyType of(PublicKey publicKey)
+  {
+    if(publicKey instanceof RSAPublicKey)
+    {
+      return RSA;
+    }
+    if(publicKey instanceof ECPublicKey)
+    {
+      return EC;
+    }
+    if(publicKey instanceof EdECPublicKey)
+    {
+      return ED25519;
+    }
+    throw new IllegalArgumentException(
+      "Unsupported key algorithm: " + publicKey.getAlgorithm());
+  }
+
+  /**
+   * Strips the fixed X.509 prefix from an Ed25519 public key.
+   */
+  private static byte[] rawEd25519PublicKey(PublicKey publicKey)
+  {
+    byte[] encoded = publicKey.getEncoded();
+    if(encoded.length != ED25519_X509_LENGTH)
+    {
+      throw new IllegalArgumentException("Not an Ed25519 public key");
+    }
+    return Arrays.copyOfRange(encoded,
+      ED25519_X509_LENGTH - ED25519_KEY_LENGTH, ED25519_X509_LENGTH);
+  }
+
+}
@@ -0,0 +1,540 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Produces the JPEG derivatives of uploaded card photos in the background:
+ * a thumbnail for the operator UI and a normalized image for the archive,
+ * stored next to the original as {side}-thumb.jpg and {side}-normalized.jpg.
+ *
+ * <p>Every job is first written to the persistent queue directory
+ * {photoStoreDir}/.queue and only removed after its derivatives have been
+ * written, so jobs survive a restart. Jobs are processed by a fixed number
+ * of workers with a bounded in-memory queue. When that queue is full the job
+ * stays on disk and is picked up by the periodic rescan of the queue
+ * directory, so uploads never wait for image processing.</p>
+ *
+ * <p>Jobs of the same card side are processed one at a time, and a job is
+ * skipped if a newer job of that side has already been dispatched, so older
+ * uploads never overwrite newer derivatives. Images exceeding the configured
+ * number of pixels are rejected before they are decoded.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PhotoProcessingService
+{
+  private static final String QUEUE_DIR = ".queue";
+
+  private static final String FAILED_DIR = "failed";
+
+  private static final String JOB_SUFFIX = ".job";
+
+  private final PhotoStorageService photoStorageService;
+
+  /** Number of worker threads */
+  @Value("${app.photo.processing.workers:2}")
+  private int workers;
+
+  /** Maximum number of jobs waiting in memory for a worker */
+  @Value("${app.photo.processing.queue-capacity:100}")
+  private int queueCapacity;
+
+  /** Interval in milliseconds between rescans of the queue directory */
+  @Value("${app.photo.processing.rescan-interval:10000}")
+  private long rescanInterval;
+
+  /** Longest edge in pixels of the thumbnail */
+  @Value("${app.photo.processing.thumbnail-size:240}")
+  private int thumbnailSize;
+
+  /** Longest edge in pixels of the normalized image */
+  @Value("${app.photo.processing.normalized-size:1600}")
+  private int normalizedSize;
+
+  /** JPEG quality of the derivatives, 0.0 to 1.0 */
+  @Value("${app.photo.processing.jpeg-quality:0.85}")
+  private float jpegQuality;
+
+  /** Maximum number of pixels of an original to be decoded */
+  @Value("${app.photo.processing.max-pixels:25000000}")
+  private long maxPixels;
+
+  /** Job files handed to the workers and not yet finished */
+  private final Set<Path> jobsInFlight = ConcurrentHashMap.newKeySet();
+
+  /** Newest dispatched job file name per card side ({card}-{side}) */
+  private final Map<String, String> newestJobByPhoto = new ConcurrentHashMap<>();
+
+  /** Striped locks serializing the workers per card side */
+  private final Object[] photoLocks = new Object[64];
+
+  /** Orders jobs submitted within the same millisecond */
+  private final AtomicLong jobSequence = new AtomicLong();
+
+  private final LongAdder submitted = new LongAdder();
+
+  private final LongAdder completed = new LongAdder();
+
+  private final LongAdder failed = new LongAdder();
+
+  private final LongAdder deferred = new LongAdder();
+
+  private final LongAdder processingNanos = new LongAdder();
+
+  private Path queueDir;
+
+  private ThreadPoolExecutor workerPool;
+
+  private ScheduledExecutorService rescanExecutor;
+
+  /**
+   * Creates the queue directory, starts the workers and resubmits the jobs
+   * left over from the last run.
+   *
+   * @throws IOException if the queue directory can not be created
+   */
+  @PostConstruct
+  public void init()
+    throws IOException
+  {
+    for(int i = 0; i < photoLocks.length; i ++)
+    {
+      photoLocks[i] = new Object();
+    }
+
+    queueDir = photoStorageService.getStoreDirectory().resolve(QUEUE_DIR);
+    Files.createDirectories(queueDir.resolve(FAILED_DIR));
+
+    AtomicInteger threadNumber = new AtomicInteger();
+    int poolSize = Math.max(1, workers);
+    workerPool = new ThreadPoolExecutor(poolSize, poolSize,
+      0L, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+      r ->
+    {
+      Thread thread = new Thread(r, "photo-worker-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    rescanExecutor = Executors.newSingleThreadScheduledExecutor(r ->
+    {
+      Thread thread = new Thread(r, "photo-queue-rescan");
+      thread.setDaemon(true);
+      return thread;
+    });
+    rescanExecutor.scheduleWithFixedDelay(this::rescanQueue,
+      0, Math.max(1000, rescanInterval), TimeUnit.MILLISECONDS);
+
+    log.info("Photo processing with {} workers, queue {}", poolSize, queueDir);
+  }
+
+  /**
+   * Stops the workers. Unfinished jobs stay in the queue directory and are
+   * processed after the next start.
+   *
+   * @throws InterruptedException if interrupted while waiting for the workers
+   */
+  @PreDestroy
+  public void close()
+    throws InterruptedException
+  {
+    rescanExecutor.shutdownNow();
+    workerPool.shutdownNow();
+    workerPool.awaitTermination(5, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Queues the post-processing of a stored photo. Returns as soon as the
+   * job is persisted; the derivatives are produced asynchronously.
+   *
+   * @param photo the stored original
+   * @throws IOException if the job can not be persisted
+   */
+  public void submit(StoredPhoto photo)
+    throws IOException
+  {
+    // fixed width fields, so job names sort in submission order
+    String name = String.format("%013d-%019d-%s-%s%s",
+      System.currentTimeMillis(), jobSequence.incrementAndGet(),
+      photo.cardNumber(), photo.side(), JOB_SUFFIX);
+    Path job = queueDir.resolve(name);
+    Path tmp = Files.createTempFile(queueDir, "job", ".tmp");
+
+    try
+    {
+      Files.writeString(tmp,
+        photo.cardNumber() + "\n" + photo.side() + "\n" + photo.filename() + "\n",
+        StandardCharsets.UTF_8, StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+      Files.move(tmp, job, StandardCopyOption.ATOMIC_MOVE);
+      syncDirectory(queueDir);
+    }
+    finally
+    {
+      Files.deleteIfExists(tmp);
+    }
+
+    submitted.increment();
+    dispatch(job);
+  }
+
+  /**
+   * @return current counters of the photo workers
+   */
+  public PhotoProcessingStatistics getStatistics()
+  {
+    return new PhotoProcessingStatistics(
+      submitted.sum(),
+      completed.sum(),
+      failed.sum(),
+      deferred.sum(),
+      workerPool.getQueue().size(),
+      workerPool.getActiveCount(),
+      processingNanos.sum()
+    );
+  }
+
+  /**
+   * Hands a job file to the workers unless it is already in flight.
+   * A full worker queue leaves the job on disk for the next rescan.
+   *
+   * @return false if the worker queue is full
+   */
+  private boolean dispatch(Path job)
+  {
+    if( ! jobsInFlight.add(job))
+    {
+      return true;
+    }
+
+    newestJobByPhoto.merge(photoKey(job), job.getFileName().toString(),
+      (current, candidate) -> current.compareTo(candidate) >= 0 ? current : candidate);
+
+    try
+    {
+      workerPool.execute(() -> process(job));
+      return true;
+    }
+    catch(RejectedExecutionException e)
+    {
+      jobsInFlight.remove(job);
+      deferred.increment();
+      log.debug("Photo worker queue full, deferring {}", job.getFileName());
+      return false;
+    }
+  }
+
+  /**
+   * Submits the jobs found in the queue directory, oldest first, until the
+   * worker queue is full.
+   */
+  void rescanQueue()
+  {
+    List<Path> jobs = new ArrayList<>();
+    try(DirectoryStream<Path> stream =
+      Files.newDirectoryStream(queueDir, "*" + JOB_SUFFIX))
+    {
+      stream.forEach(jobs::add);
+    }
+    catch(IOException e)
+    {
+      log.error("Can't read photo queue {}", queueDir, e);
+      return;
+    }
+
+    Collections.sort(jobs);
+    for(Path job : jobs)
+    {
+      if( ! dispatch(job))
+      {
+        break;
+      }
+    }
+  }
+
+  private void process(Path job)
+  {
+    String photoKey = photoKey(job);
+    String jobName = job.getFileName().toString();
+
+    synchronized(photoLocks[Math.floorMod(photoKey.hashCode(), photoLocks.length)])
+    {
+      try
+      {
+        String newest = newestJobByPhoto.get(photoKey);
+        if(newest != null && newest.compareTo(jobName) > 0)
+        {
+          // the newer job of this card side produces the derivatives
+          log.debug("Photo job {} superseded by {}", jobName, newest);
+          Files.deleteIfExists(job);
+          completed.increment();
+        }
+        else
+        {
+          processJob(job);
+        }
+      }
+      catch(IOException e)
+      {
+        log.error("Can't remove photo job {}", jobName, e);
+      }
+      finally
+      {
+        newestJobByPhoto.remove(photoKey, jobName);
+        jobsInFlight.remove(job);
+      }
+    }
+  }
+
+  private void processJob(Path job)
+  {
+    long start = System.nanoTime();
+    try
+    {
+      if(Files.notExists(job))
+      {
+        // finished by a worker after the rescan listed it
+        return;
+      }
+
+      List<String> lines = Files.readAllLines(job, StandardCharsets.UTF_8);
+      if(lines.size() < 3)
+      {
+        throw new IOException("Malformed photo job");
+      }
+
+      Path cardDir = photoStorageService.getStoreDirectory().resolve(lines.get(0));
+      String side = lines.get(1);
+      Path original = cardDir.resolve(lines.get(2));
+
+      if(Files.notExists(original))
+      {
+        // replaced by an upload in a different format, which has its own job
+        log.debug("Photo {} no longer exists, skipping", original);
+      }
+      else
+      {
+        BufferedImage image;
+        try
+        {
+          image = readImage(original);
+        }
+        catch(IOException e)
+        {
+          // never leave the derivatives of an earlier upload behind
+          Files.deleteIfExists(cardDir.resolve(side + "-thumb.jpg"));
+          Files.deleteIfExists(cardDir.resolve(side + "-normalized.jpg"));
+          throw e;
+        }
+        writeJpeg(scale(image, thumbnailSize), cardDir.resolve(side + "-thumb.jpg"));
+        writeJpeg(scale(image, normalizedSize), cardDir.resolve(side + "-normalized.jpg"));
+        log.debug("Photo derivatives written for {}", original);
+      }
+
+      Files.deleteIfExists(job);
+      completed.increment();
+      processingNanos.add(System.nanoTime() - start);
+    }
+    catch(IOException | RuntimeException e)
+    {
+      failed.increment();
+      log.error("Photo job {} failed", job.getFileName(), e);
+      try
+      {
+        Files.move(job, queueDir.resolve(FAILED_DIR).resolve(job.getFileName()),
+          StandardCopyOption.REPLACE_EXISTING);
+      }
+      catch(IOException ex)
+      {
+        log.error("Can't move failed photo job {}", job.getFileName(), ex);
+      }
+    }
+  }
+
+  /**
+   * Forces the entries of a directory to disk, so a moved job survives a
+   * crash. Not every platform can open a directory for this, failures are
+   * ignored there.
+   */
+  private void syncDirectory(Path dir)
+  {
+    try(FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ))
+    {
+      channel.force(true);
+    }
+    catch(IOException e)
+    {
+      log.trace("can't sync directory {}: {}", dir, e.getMessage());
+    }
+  }
+
+  /**
+   * Decodes an original after checking its dimensions, so oversized images
+   * (decompression bombs) are rejected without allocating their pixels.
+   *
+   * @throws IOException if no reader supports the image, it exceeds the
+   * maximum number of pixels or it can not be decoded
+   */
+  private BufferedImage readImage(Path original)
+    throws IOException
+  {
+    try(ImageInputStream in = ImageIO.createImageInputStream(original.toFile()))
+    {
+      Iterator<ImageReader> readers = (in != null)
+        ? ImageIO.getImageReaders(in) : Collections.emptyIterator();
+      if( ! readers.hasNext())
+      {
+        throw new IOException("No image reader for " + original);
+      }
+
+      ImageReader reader = readers.next();
+      try
+      {
+        reader.setInput(in, true, true);
+        long pixels = (long)reader.getWidth(0) * reader.getHeight(0);
+        if(pixels > maxPixels)
+        {
+          throw new IOException("Image " + original + " has " + pixels
+            + " pixels, more than the allowed " + maxPixels);
+        }
+        return reader.read(0);
+      }
+      finally
+      {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * @return the card side ({card}-{side}) of a job file named
+   * {millis}-{sequence}-{card}-{side}.job
+   */
+  private static String photoKey(Path job)
+  {
+    String name = job.getFileName().toString();
+    int start = name.indexOf('-', name.indexOf('-') + 1) + 1;
+    return name.substring(start, name.length() - JOB_SUFFIX.length());
+  }
+
+  /**
+   * Scales the image down to fit into a square of the given edge length,
+   * dropping any alpha channel. Smaller images are only converted.
+   */
+  private static BufferedImage scale(BufferedImage image, int maxEdge)
+  {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    double factor = Math.min(1.0, (double)maxEdge / Math.max(width, height));
+    int targetWidth = Math.max(1, (int)Math.round(width * factor));
+    int targetHeight = Math.max(1, (int)Math.round(height * factor));
+
+    BufferedImage target =
+      new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = target.createGraphics();
+    try
+    {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+      g.setRenderingHint(RenderingHints.KEY_RENDERING,
+        RenderingHints.VALUE_RENDER_QUALITY);
+      g.drawImage(image, 0, 0, targetWidth, targetHeight, Color.WHITE, null);
+    }
+    finally
+    {
+      g.dispose();
+    }
+    return target;
+  }
+
+  /**
+   * Writes a JPEG to a temporary file and moves it into place atomically.
+   */
+  private void writeJpeg(BufferedImage image, Path file)
+    throws IOException
+  {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+    ImageWriteParam param = writer.getDefaultWriteParam();
+    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+    param.setCompressionQuality(jpegQuality);
+
+    Path tmp = Files.createTempFile(file.getParent(), "derivative", ".tmp");
+    try
+    {
+      try(ImageOutputStream out = ImageIO.createImageOutputStream(tmp.toFile()))
+      {
+        writer.setOutput(out);
+        writer.write(null, new IIOImage(image, null, null), param);
+      }
+      finally
+      {
+        writer.dispose();
+      }
+      Files.move(tmp, file,
+        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    finally
+    {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+}
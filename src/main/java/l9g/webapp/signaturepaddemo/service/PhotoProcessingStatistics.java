@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+/**
+ * Counters of the photo post-processing workers.
+ *
+ * @param submitted jobs accepted into the persistent queue
+ * @param completed jobs whose derivatives have been written
+ * @param failed jobs that could not be processed
+ * @param deferred submissions left on disk because the worker queue was full
+ * @param queued jobs waiting in the worker queue
+ * @param active jobs being processed right now
+ * @param processingNanos total processing time of completed jobs
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record PhotoProcessingStatistics(
+  long submitted,
+  long completed,
+  long failed,
+  long deferred,
+  int queued,
+  int active,
+  long processingNanos
+  )
+{
+}
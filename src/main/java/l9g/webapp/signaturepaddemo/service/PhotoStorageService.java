@@ -0,0 +1,214 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Store for the card photos taken during the signing workflow.
+ * Photos are kept as {storeDir}/{cardNumber}/{side}.{ext}. Uploads are
+ * streamed through a fixed size buffer into a temporary file next to the
+ * target, hashed while being written and moved into place atomically, so
+ * readers never see a partially written photo.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+public class PhotoStorageService
+{
+  private static final Pattern CARD_NUMBER = Pattern.compile("[0-9A-Za-z]{1,32}");
+
+  private static final Set<String> SIDES = Set.of("front", "back");
+
+  /**
+   * File extensions of the accepted photo content types, only formats the
+   * post-processing workers can decode with ImageIO
+   */
+  private static final Map<String, String> EXTENSIONS = Map.of(
+    "image/jpeg", "jpg",
+    "image/png", "png"
+  );
+
+  /** Directory path for storing card photos */
+  @Value("${app.photo.store-dir:${user.home}/.signaturephotos}")
+  private String storeDir;
+
+  /** Maximum size in bytes of a single photo */
+  @Value("${app.photo.max-size:10485760}")
+  private long maxSize;
+
+  /**
+   * Initializes the service by creating the storage directory if it doesn't exist.
+   * Called automatically after bean construction.
+   *
+   * @throws IOException if directory creation fails
+   */
+  @PostConstruct
+  public void init()
+    throws IOException
+  {
+    Path dir = Paths.get(storeDir);
+    if(Files.notExists(dir))
+    {
+      Files.createDirectories(dir);
+      log.info("Created photo store directory: {}", dir);
+    }
+  }
+
+  /**
+   * @return the root directory of the photo store
+   */
+  public Path getStoreDirectory()
+  {
+    return Paths.get(storeDir);
+  }
+
+  /**
+   * @return maximum size in bytes of a single photo
+   */
+  public long getMaxSize()
+  {
+    return maxSize;
+  }
+
+  /**
+   * @param contentType the content type of an upload
+   * @return true if photos of this content type are accepted
+   */
+  public boolean isSupportedContentType(String contentType)
+  {
+    return contentType != null && EXTENSIONS.containsKey(contentType.toLowerCase());
+  }
+
+  /**
+   * Streams a photo into the store, replacing an earlier photo of the same
+   * card side.
+   *
+   * @param cardNumber the card number
+   * @param side front or back
+   * @param contentType the content type of the photo
+   * @param in the photo content
+   * @return the stored photo
+   * @throws IllegalArgumentException if card number, side or content type are invalid
+   * @throws PhotoTooLargeException if the photo exceeds the maximum size
+   * @throws IOException if reading or writing the photo fails
+   */
+  public StoredPhoto storePhoto(
+    String cardNumber, String side, String contentType, InputStream in)
+    throws IOException
+  {
+    if(cardNumber == null ||  ! CARD_NUMBER.matcher(cardNumber).matches())
+    {
+      throw new IllegalArgumentException("Invalid card number");
+    }
+    if( ! SIDES.contains(side))
+    {
+      throw new IllegalArgumentException("Invalid card side: " + side);
+    }
+    if( ! isSupportedContentType(contentType))
+    {
+      throw new IllegalArgumentException("Unsupported content type: " + contentType);
+    }
+
+    String filename = side + "." + EXTENSIONS.get(contentType.toLowerCase());
+    Path cardDir = Paths.get(storeDir, cardNumber);
+    Files.createDirectories(cardDir);
+    Path tmp = Files.createTempFile(cardDir, side, ".tmp");
+
+    try
+    {
+      MessageDigest digest = SignatureBlobService.newSha256();
+      long size = 0;
+
+      try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE);
+        OutputStream out = new DigestOutputStream(Channels.newOutputStream(channel), digest))
+      {
+        byte[] buffer = new byte[16384];
+        int n;
+        while((n = in.read(buffer)) >= 0)
+        {
+          size += n;
+          if(size > maxSize)
+          {
+            throw new PhotoTooLargeException(maxSize);
+          }
+          out.write(buffer, 0, n);
+        }
+        out.flush();
+        // the original must be durable before post-processing is queued
+        channel.force(true);
+      }
+
+      Files.move(tmp, cardDir.resolve(filename),
+        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+      // drop the photo of the other format once the new one is in place
+      for(String extension : EXTENSIONS.values())
+      {
+        Path other = cardDir.resolve(side + "." + extension);
+        if( ! other.getFileName().toString().equals(filename))
+        {
+          Files.deleteIfExists(other);
+        }
+      }
+
+      StoredPhoto photo = new StoredPhoto(cardNumber, side, filename, size,
+        HexFormat.of().formatHex(digest.digest()));
+      log.info("Photo stored: {}/{} ({} bytes, sha256 {})",
+        cardNumber, filename, size, photo.sha256());
+      return photo;
+    }
+    finally
+    {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * Thrown when a photo exceeds the configured maximum size.
+   */
+  public static class PhotoTooLargeException extends IOException
+  {
+    private static final long serialVersionUID = 1L;
+
+    public PhotoTooLargeException(long maxSize)
+    {
+      super("Photo exceeds maximum size of " + maxSize + " bytes");
+    }
+
+  }
+
+}
@@ -23,12 +23,31 @@ import java.io.IOException;
 import java.security.KeyFactory;
 import java.security.PublicKey;
 import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
 import java.util.Base64;
 
 public class PublicKeyDeserializer extends StdDeserializer<PublicKey>
 {
   private static final long serialVersionUID = 8318750956675564611L;
 
+  /** rsaEncryption 1.2.840.113549.1.1.1 */
+  private static final byte[] OID_RSA =
+  {
+    0x2a, (byte)0x86, 0x48, (byte)0x86, (byte)0xf7, 0x0d, 0x01, 0x01, 0x01
+  };
+
+  /** id-ecPublicKey 1.2.840.10045.2.1 */
+  private static final byte[] OID_EC =
+  {
+    0x2a, (byte)0x86, 0x48, (byte)0xce, 0x3d, 0x02, 0x01
+  };
+
+  /** id-Ed25519 1.3.101.112 */
+  private static final byte[] OID_ED25519 =
+  {
+    0x2b, 0x65, 0x70
+  };
+
   public PublicKeyDeserializer()
   {
     super(PublicKey.class);
@@ -46,7 +65,7 @@ public class PublicKeyDeserializer extends StdDeserializer<PublicKey>
     try
     {
       X509EncodedKeySpec spec = new X509EncodedKeySpec(data);
-      KeyFactory kf = KeyFactory.getInstance("RSA");
+      KeyFactory kf = KeyFactory.getInstance(keyAlgorithmOf(data));
       return kf.generatePublic(spec);
     }
     catch(Exception e)
@@ -55,4 +74,71 @@ public class PublicKeyDeserializer extends StdDeserializer<PublicKey>
     }
   }
 
+  /**
+   * Reads the key algorithm from the AlgorithmIdentifier of an X.509
+   * SubjectPublicKeyInfo structure.
+   *
+   * @param spki DER encoded SubjectPublicKeyInfo
+   * @return the JCA key algorithm name
+   * @throws IOException if the structure or the algorithm is not supported
+   */
+  static String keyAlgorithmOf(byte[] spki)
+    throws IOException
+  {
+    int[] pos = { 0 };
+    enter(spki, pos, 0x30); // SubjectPublicKeyInfo
+    enter(spki, pos, 0x30); // AlgorithmIdentifier
+    int length = enter(spki, pos, 0x06);
+    byte[] oid = Arrays.copyOfRange(spki, pos[0], pos[0] + length);
+
+    if(Arrays.equals(oid, OID_RSA))
+    {
+      return "RSA";
+    }
+    if(Arrays.equals(oid, OID_EC))
+    {
+      return "EC";
+    }
+    if(Arrays.equals(oid, OID_ED25519))
+    {
+      return "Ed25519";
+    }
+    throw new IOException("Unsupported public key algorithm");
+  }
+
+  /**
+   * Checks the tag at the current position and moves behind the length
+   * octets.
+   *
+   * @return the content length of the element
+   */
+  private static int enter(byte[] der, int[] pos, int tag)
+    throws IOException
+  {
+    if(pos[0] + 2 > der.length || (der[pos[0]] & 0xff) != tag)
+    {
+      throw new IOException("Invalid SubjectPublicKeyInfo");
+    }
+    int length = der[pos[0] + 1] & 0xff;
+    pos[0] += 2;
+    if(length > 0x7f)
+    {
+      int octets = length & 0x7f;
+      if(octets > 3 || pos[0] + octets > der.length)
+      {
+        throw new IOException("Invalid SubjectPublicKeyInfo");
+      }
+      length = 0;
+      for(int i = 0; i < octets; i ++)
+      {
+        length = (length << 8) | (der[pos[0] ++] & 0xff);
+      }
+    }
+    if(pos[0] + length > der.length)
+    {
+      throw new IOException("Invalid SubjectPublicKeyInfo");
+    }
+    return length;
+  }
+
 }
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed store for signature image payloads (PNG, SVG).
+ * Every blob is stored once as {storeDir}/{hash[0..2]}/{hash} where hash is
+ * the hex encoded SHA-256 of its content, so identical images are deduplicated.
+ * With {@code app.signed-jwt.sync} enabled a blob and its directory entry are
+ * forced to disk before it is returned, so a journal record never references
+ * a blob lost in a crash.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+public class SignatureBlobService
+{
+  /** Directory path for storing signature image blobs */
+  @Value("${app.signature-blob.store-dir:${user.home}/.signatureblobs}")
+  private String storeDir;
+
+  /** Force blobs to disk, follows the journal setting */
+  @Value("${app.signed-jwt.sync:true}")
+  private boolean sync;
+
+  /**
+   * Initializes the service by creating the storage directory if it doesn't exist.
+   * Called automatically after bean construction.
+   *
+   * @throws IOException if directory creation fails
+   */
+  @PostConstruct
+  public void init()
+    throws IOException
+  {
+    Path dir = Paths.get(storeDir);
+    if(Files.notExists(dir))
+    {
+      Files.createDirectories(dir);
+      log.info("Created signature blob store directory: {}", dir);
+    }
+  }
+
+  /**
+   * Stores a blob unless a blob with the same content already exists.
+   * New blobs are written to a temporary file, forced to disk and moved
+   * into place atomically.
+   *
+   * @param data the blob content
+   * @return the hex encoded SHA-256 of the content
+   * @throws IOException if writing the blob fails
+   */
+  public String storeBlob(byte[] data)
+    throws IOException
+  {
+    String hash = sha256(data);
+    Path file = blobPath(hash);
+
+    if(Files.exists(file))
+    {
+      log.debug("Blob already stored: {}", hash);
+      return hash;
+    }
+
+    createBlobDirectory(file.getParent());
+    Path tmp = Files.createTempFile(file.getParent(), hash, ".tmp");
+    try
+    {
+      try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE))
+      {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while(buffer.hasRemaining())
+        {
+          channel.write(buffer);
+        }
+        force(channel);
+      }
+      moveIntoPlace(tmp, file);
+      log.debug("Blob stored: {} ({} bytes)", hash, data.length);
+    }
+    catch(FileAlreadyExistsException e)
+    {
+      // stored concurrently with the same content
+      log.debug("Blob stored concurrently: {}", hash);
+    }
+    finally
+    {
+      Files.deleteIfExists(tmp);
+    }
+    return hash;
+  }
+
+  /**
+   * Streams a blob into the store while computing its SHA-256. The blob is
+   * only moved into place if the digest matches the expected one.
+   *
+   * @param in the blob content
+   * @param expectedSha256 the expected hex encoded SHA-256 of the content
+   * @return true if the digest matched and the blob is stored
+   * @throws IOException if reading or writing the blob fails
+   */
+  public boolean storeBlob(InputStream in, String expectedSha256)
+    throws IOException
+  {
+    try(StagedBlob staged = stageBlob(in, expectedSha256))
+    {
+      if( ! staged.matches())
+      {
+        return false;
+      }
+      staged.commit();
+      return true;
+    }
+  }
+
+  /**
+   * Streams a blob into a temporary file of the store while computing its
+   * SHA-256, without making it visible. Several blobs can be staged and
+   * committed together once all digests are known to match; closing an
+   * uncommitted blob deletes it.
+   *
+   * @param in the blob content
+   * @param expectedSha256 the expected hex encoded SHA-256 of the content
+   * @return the staged blob, to be closed by the caller
+   * @throws IOException if reading or writing the blob fails
+   * @throws IllegalArgumentException if the expected hash is not a hex SHA-256
+   */
+  public StagedBlob stageBlob(InputStream in, String expectedSha256)
+    throws IOException
+  {
+    String expected = expectedSha256.toLowerCase();
+    Path file = blobPath(expected);
+    createBlobDirectory(file.getParent());
+    Path tmp = Files.createTempFile(file.getParent(), expected, ".tmp");
+
+    try
+    {
+      MessageDigest digest = newSha256();
+      try(FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE))
+      {
+        OutputStream out = new DigestOutputStream(Channels.newOutputStream(channel), digest);
+        in.transferTo(out);
+        out.flush();
+        force(channel);
+      }
+
+      String hash = HexFormat.of().formatHex(digest.digest());
+      if( ! hash.equals(expected))
+      {
+        log.warn("Blob digest mismatch: expected {}, got {}", expected, hash);
+      }
+      return new StagedBlob(tmp, file, hash.equals(expected));
+    }
+    catch(IOException | RuntimeException e)
+    {
+      Files.deleteIfExists(tmp);
+      throw e;
+    }
+  }
+
+  /**
+   * A blob written to a temporary file of the store, see {@link #stageBlob}.
+   */
+  public final class StagedBlob implements AutoCloseable
+  {
+    private final Path tmp;
+
+    private final Path file;
+
+    private final boolean matches;
+
+    private StagedBlob(Path tmp, Path file, boolean matches)
+    {
+      this.tmp = tmp;
+      this.file = file;
+      this.matches = matches;
+    }
+
+    /**
+     * @return true if the content matches the expected digest
+     */
+    public boolean matches()
+    {
+      return matches;
+    }
+
+    /**
+     * @return the hex encoded SHA-256 of the blob
+     */
+    public String getHash()
+    {
+      return file.getFileName().toString();
+    }
+
+    /**
+     * Moves the blob into place, unless a blob with the same content
+     * already exists.
+     *
+     * @throws IOException if moving the blob fails
+     * @throws IllegalStateException if the content does not match the digest
+     */
+    public void commit()
+      throws IOException
+    {
+      if( ! matches)
+      {
+        throw new IllegalStateException("Blob digest mismatch: " + getHash());
+      }
+
+      if(Files.notExists(file))
+      {
+        try
+        {
+          moveIntoPlace(tmp, file);
+          log.debug("Blob stored: {}", getHash());
+        }
+        catch(FileAlreadyExistsException e)
+        {
+          log.debug("Blob stored concurrently: {}", getHash());
+        }
+      }
+    }
+
+    /**
+     * Deletes the temporary file if the blob has not been committed.
+     *
+     * @throws IOException if deleting the file fails
+     */
+    @Override
+    public void close()
+      throws IOException
+    {
+      Files.deleteIfExists(tmp);
+    }
+
+  }
+
+  /**
+   * Loads a blob by its hash.
+   *
+   * @param hash the hex encoded SHA-256 of the content
+   * @return the blob content or null if not found
+   * @throws IOException if reading the blob fails
+   */
+  public byte[] loadBlob(String hash)
+    throws IOException
+  {
+    Path file = blobPath(hash);
+    if(Files.exists(file))
+    {
+      return Files.readAllBytes(file);
+    }
+    log.warn("Blob not found: {}", hash);
+    return null;
+  }
+
+  /**
+   * Computes the hex encoded SHA-256 of the given data.
+   *
+   * @param data the data to hash
+   * @return the lower case hex encoded hash
+   */
+  public static String sha256(byte[] data)
+  {
+    return HexFormat.of().formatHex(newSha256().digest(data));
+  }
+
+  /**
+   * @return a new SHA-256 message digest
+   */
+  static MessageDigest newSha256()
+  {
+    try
+    {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch(NoSuchAlgorithmException e)
+    {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private void force(FileChannel channel)
+    throws IOException
+  {
+    if(sync)
+    {
+      channel.force(true);
+    }
+  }
+
+  private void moveIntoPlace(Path tmp, Path file)
+    throws IOException
+  {
+    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+    syncDirectory(file.getParent());
+  }
+
+  /**
+   * Creates a missing shard directory and persists its entry in the store
+   * directory.
+   */
+  private void createBlobDirectory(Path dir)
+    throws IOException
+  {
+    if(Files.notExists(dir))
+    {
+      Files.createDirectories(dir);
+      syncDirectory(dir.getParent());
+    }
+  }
+
+  /**
+   * Forces the entries of a directory to disk. Not every platform can open
+   * a directory for this, failures are ignored there.
+   */
+  private void syncDirectory(Path dir)
+  {
+    if(sync)
+    {
+      try(FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ))
+      {
+        channel.force(true);
+      }
+      catch(IOException e)
+      {
+        log.trace("can't sync directory {}: {}", dir, e.getMessage());
+      }
+    }
+  }
+
+  private Path blobPath(String hash)
+  {
+    if( ! hash.matches("[0-9a-f]{64}"))
+    {
+      throw new IllegalArgumentException("Invalid blob hash: " + hash);
+    }
+    return Paths.get(storeDir, hash.substring(0, 2), hash);
+  }
+
+}
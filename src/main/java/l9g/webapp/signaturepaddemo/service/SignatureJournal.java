@@ -0,0 +1,529 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only, segmented journal of signed JWTs.
+ *
+ * <p>Records are appended to size-rolled segment files
+ * {dir}/signatures-NNNNNN.journal. Each record is length-prefixed:</p>
+ * <pre>
+ *   int   length of the remaining record
+ *   int   CRC32 of everything after this field
+ *   long  timestamp (epoch millis)
+ *   short subject length
+ *   byte[] subject (UTF-8)
+ *   byte[] signed JWT (UTF-8)
+ * </pre>
+ *
+ * <p>An in-memory index by subject and by time is rebuilt from the segments
+ * on startup; a torn record at the end of the last segment is truncated,
+ * corrupt records in between are skipped by resyncing to the next record
+ * with a valid length and checksum. Sealed segments are read through read-only memory mappings.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Slf4j
+class SignatureJournal implements Closeable
+{
+  static final String SEGMENT_PREFIX = "signatures-";
+
+  static final String SEGMENT_SUFFIX = ".journal";
+
+  /** Bytes following the length field up to the subject bytes */
+  private static final int HEADER_SIZE = 4 + 8 + 2;
+
+  /**
+   * Location of one record inside the journal.
+   *
+   * @param segment segment number
+   * @param offset position of the length field inside the segment
+   * @param length total record size including the length field
+   * @param timestamp record timestamp (epoch millis)
+   * @param subject subject of the signed JWT
+   */
+  record RecordLocation(long segment, long offset, int length, long timestamp, String subject)
+    {
+  }
+
+  private final Path dir;
+
+  private final long segmentSize;
+
+  private final boolean sync;
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Records per subject in append order */
+  private final Map<String, List<RecordLocation>> recordsBySubject = new HashMap<>();
+
+  /** Records by timestamp */
+  private final NavigableMap<Long, List<RecordLocation>> recordsByTime = new TreeMap<>();
+
+  /** Read-only mappings of sealed segments */
+  private final Map<Long, MappedByteBuffer> mappedSegments = new ConcurrentHashMap<>();
+
+  private long activeSegment;
+
+  private FileChannel activeChannel;
+
+  private long activeSize;
+
+  private long recordCount;
+
+  /**
+   * @param dir directory holding the segment files
+   * @param segmentSize size in bytes after which a new segment is started
+   * @param sync force every append to disk before returning
+   */
+  SignatureJournal(Path dir, long segmentSize, boolean sync)
+  {
+    this.dir = dir;
+    this.segmentSize = Math.min(segmentSize, Integer.MAX_VALUE);
+    this.sync = sync;
+  }
+
+  /**
+   * Scans all existing segments, rebuilds the index and opens the last
+   * segment for appending.
+   *
+   * @throws IOException if a segment cannot be read or opened
+   */
+  void open()
+    throws IOException
+  {
+    List<Long> segments = listSegments();
+
+    for(int i = 0; i < segments.size(); i ++)
+    {
+      recover(segments.get(i), i == segments.size() - 1);
+    }
+
+    activeSegment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+    openActiveSegment();
+
+    log.info("SignatureJournal opened: {} records in {} segment(s), active segment {}",
+      recordCount, Math.max(1, segments.size()), segmentPath(activeSegment));
+  }
+
+  /**
+   * Appends a signed JWT to the journal.
+   *
+   * @param subject the subject (user identifier) of the JWT
+   * @param signedJWT the compact signed JWT
+   * @param timestamp the record timestamp (epoch millis)
+   *
+   * @return location of the new record
+   *
+   * @throws IOException if writing fails
+   */
+  RecordLocation append(String subject, String signedJWT, long timestamp)
+    throws IOException
+  {
+    byte[] subjectBytes = subject.getBytes(StandardCharsets.UTF_8);
+    byte[] jwtBytes = signedJWT.getBytes(StandardCharsets.UTF_8);
+
+    if(subjectBytes.length > 0xffff)
+    {
+      throw new IOException("subject too long");
+    }
+
+    int recordLength = HEADER_SIZE + subjectBytes.length + jwtBytes.length;
+    ByteBuffer buffer = ByteBuffer.allocate(4 + recordLength);
+    buffer.putInt(recordLength);
+    buffer.putInt(0); // CRC placeholder
+    buffer.putLong(timestamp);
+    buffer.putShort((short)subjectBytes.length);
+    buffer.put(subjectBytes);
+    buffer.put(jwtBytes);
+    buffer.putInt(4, checksum(buffer.duplicate().position(8).limit(buffer.capacity())));
+    buffer.flip();
+
+    lock.writeLock().lock();
+    try
+    {
+      if(activeSize > 0 && activeSize + buffer.remaining() > segmentSize)
+      {
+        rollSegment();
+      }
+
+      long offset = activeSize;
+      while(buffer.hasRemaining())
+      {
+        activeChannel.write(buffer, activeSize + buffer.position());
+      }
+      if(sync)
+      {
+        activeChannel.force(false);
+      }
+      activeSize += buffer.capacity();
+
+      RecordLocation location = new RecordLocation(
+        activeSegment, offset, buffer.capacity(), timestamp, subject);
+      index(location);
+      return location;
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * @param subject the subject (user identifier)
+   *
+   * @return all records of the subject in append order
+   */
+  List<RecordLocation> findBySubject(String subject)
+  {
+    lock.readLock().lock();
+    try
+    {
+      List<RecordLocation> list = recordsBySubject.get(subject);
+      return list != null ? List.copyOf(list) : Collections.emptyList();
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @param fromMillis lower bound (inclusive, epoch millis)
+   * @param toMillis upper bound (exclusive, epoch millis)
+   *
+   * @return all records within the time range, ordered by timestamp
+   */
+  List<RecordLocation> findByTime(long fromMillis, long toMillis)
+  {
+    lock.readLock().lock();
+    try
+    {
+      List<RecordLocation> list = new ArrayList<>();
+      recordsByTime.subMap(fromMillis, true, toMillis, false)
+        .values().forEach(list::addAll);
+      return list;
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * @return all records of the journal, ordered by timestamp
+   */
+  List<RecordLocation> findAll()
+  {
+    lock.readLock().lock();
+    try
+    {
+      List<RecordLocation> list = new ArrayList<>((int)recordCount);
+      recordsByTime.values().forEach(list::addAll);
+      return list;
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Reads the signed JWT stored at the given location.
+   *
+   * @param location the record location
+   *
+   * @return the compact signed JWT
+   *
+   * @throws IOException if reading fails
+   */
+  String read(RecordLocation location)
+    throws IOException
+  {
+    byte[] record = new byte[location.length()];
+
+    lock.readLock().lock();
+    try
+    {
+      if(location.segment() == activeSegment)
+      {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while(buffer.hasRemaining())
+        {
+          if(activeChannel.read(buffer, location.offset() + buffer.position()) < 0)
+          {
+            throw new IOException("unexpected end of segment " + activeSegment);
+          }
+        }
+      }
+      else
+      {
+        mappedSegment(location.segment())
+          .get((int)location.offset(), record, 0, record.length);
+      }
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+
+    int subjectLength = ((record[16] & 0xff) << 8) | (record[17] & 0xff);
+    int jwtOffset = 4 + HEADER_SIZE + subjectLength;
+    return new String(record, jwtOffset, record.length - jwtOffset, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return number of records in the journal
+   */
+  long size()
+  {
+    lock.readLock().lock();
+    try
+    {
+      return recordCount;
+    }
+    finally
+    {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void close()
+    throws IOException
+  {
+    lock.writeLock().lock();
+    try
+    {
+      if(activeChannel != null)
+      {
+        activeChannel.force(true);
+        activeChannel.close();
+        activeChannel = null;
+      }
+      mappedSegments.clear();
+    }
+    finally
+    {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void rollSegment()
+    throws IOException
+  {
+    activeChannel.force(true);
+    activeChannel.close();
+    activeSegment ++;
+    openActiveSegment();
+    log.info("SignatureJournal rolled to segment {}", segmentPath(activeSegment));
+  }
+
+  private void openActiveSegment()
+    throws IOException
+  {
+    activeChannel = FileChannel.open(segmentPath(activeSegment),
+      StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    activeSize = activeChannel.size();
+  }
+
+  /**
+   * Indexes all valid records of a segment. Corrupt data followed by a valid
+   * record is skipped, the scan resyncs at that record. A torn or corrupt
+   * tail of the last segment is truncated, of a sealed segment it is ignored.
+   */
+  private void recover(long segment, boolean last)
+    throws IOException
+  {
+    Path path = segmentPath(segment);
+
+    try(FileChannel channel = FileChannel.open(path,
+      StandardOpenOption.READ, StandardOpenOption.WRITE))
+    {
+      long size = channel.size();
+      ByteBuffer buffer;
+
+      if(last)
+      {
+        // the active segment may be truncated below, so do not map it
+        buffer = ByteBuffer.allocate((int)size);
+        while(buffer.hasRemaining()
+          && channel.read(buffer, buffer.position()) >= 0)
+        {
+        }
+      }
+      else
+      {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        mappedSegments.put(segment, mapped);
+        buffer = mapped;
+      }
+
+      int position = 0;
+
+      while(position + 4 <= size)
+      {
+        int recordLength = validRecordLength(buffer, position, size);
+        if(recordLength < 0)
+        {
+          int next = position + 1;
+          while(next + 4 <= size && validRecordLength(buffer, next, size) < 0)
+          {
+            next ++;
+          }
+          if(next + 4 > size)
+          {
+            break;
+          }
+          log.error("SignatureJournal: skipping {} corrupt bytes in {} at {}",
+            next - position, path, position);
+          position = next;
+          continue;
+        }
+
+        long timestamp = buffer.getLong(position + 8);
+        int subjectLength = buffer.getShort(position + 16) & 0xffff;
+        byte[] subjectBytes = new byte[subjectLength];
+        buffer.get(position + 18, subjectBytes);
+
+        index(new RecordLocation(segment, position, 4 + recordLength, timestamp,
+          new String(subjectBytes, StandardCharsets.UTF_8)));
+        position += 4 + recordLength;
+      }
+
+      if(position < size)
+      {
+        if(last)
+        {
+          log.warn("SignatureJournal: truncating torn tail of {} at {} ({} bytes)",
+            path, position, size - position);
+          channel.truncate(position);
+        }
+        else
+        {
+          log.error("SignatureJournal: ignoring corrupt tail of sealed segment {} at {} ({} bytes)",
+            path, position, size - position);
+        }
+      }
+    }
+  }
+
+  /**
+   * @return length of the record at the given position, -1 if the length
+   * field or the checksum is invalid
+   */
+  private static int validRecordLength(ByteBuffer buffer, int position, long size)
+  {
+    int recordLength = buffer.getInt(position);
+    if(recordLength < HEADER_SIZE || position + 4L + recordLength > size)
+    {
+      return -1;
+    }
+
+    int crc = buffer.getInt(position + 4);
+    if(crc != checksum(buffer.duplicate()
+      .position(position + 8).limit(position + 4 + recordLength)))
+    {
+      return -1;
+    }
+    return recordLength;
+  }
+
+  private void index(RecordLocation location)
+  {
+    recordsBySubject
+      .computeIfAbsent(location.subject(), k -> new ArrayList<>())
+      .add(location);
+    recordsByTime
+      .computeIfAbsent(location.timestamp(), k -> new ArrayList<>(1))
+      .add(location);
+    recordCount ++;
+  }
+
+  private MappedByteBuffer mappedSegment(long segment)
+    throws IOException
+  {
+    try
+    {
+      return mappedSegments.computeIfAbsent(segment, s ->
+      {
+        try(FileChannel channel = FileChannel.open(segmentPath(s), StandardOpenOption.READ))
+        {
+          return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        catch(IOException e)
+        {
+          throw new UncheckedIOException(e);
+        }
+      });
+    }
+    catch(UncheckedIOException e)
+    {
+      throw e.getCause();
+    }
+  }
+
+  private List<Long> listSegments()
+    throws IOException
+  {
+    try(Stream<Path> files = Files.list(dir))
+    {
+      return files
+        .map(path -> path.getFileName().toString())
+        .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+        .map(name -> Long.valueOf(name.substring(
+        SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+        .sorted()
+        .toList();
+    }
+  }
+
+  private Path segmentPath(long segment)
+  {
+    return dir.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+  }
+
+  private static int checksum(ByteBuffer buffer)
+  {
+    CRC32 crc = new CRC32();
+    crc.update(buffer);
+    return (int)crc.getValue();
+  }
+
+}
@@ -17,12 +17,9 @@ package l9g.webapp.signaturepaddemo.service;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.JWK;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.util.Map;
 import java.util.UUID;
 import lombok.Getter;
@@ -86,6 +83,35 @@ public class SignaturePad
     this.name = name;
   }
 
+  /**
+   * Copy constructor, see {@link #copy()}.
+   *
+   * @param other the signature pad to copy
+   */
+  private SignaturePad(SignaturePad other)
+  {
+    this.uuid = other.uuid;
+    this.name = other.name;
+    this.validated = other.validated;
+    this.clientEnvironment = other.clientEnvironment;
+    this.version = other.version;
+    this.ttl = other.ttl;
+    this.publicJwk = other.publicJwk;
+  }
+
+  /**
+   * Creates a copy of this signature pad.
+   * Signature pads returned by the {@link SignaturePadService} are shared
+   * between requests and must not be modified in place; change a copy and
+   * store it with {@link SignaturePadService#storeSignaturePad(SignaturePad)}.
+   *
+   * @return a new signature pad with the same state
+   */
+  public SignaturePad copy()
+  {
+    return new SignaturePad(this);
+  }
+
   /**
    * Gets the key identifier for the current version.
    * Combines UUID and version number to create a unique key identifier.
@@ -110,25 +136,30 @@ public class SignaturePad
     throws NoSuchAlgorithmException
   {
     // Generate new RSA key pair
-    KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
-    keyGen.initialize(2048);
-    KeyPair keyPair = keyGen.generateKeyPair();
-    RSAPrivateKey privateKey = (RSAPrivateKey)keyPair.getPrivate();
-    RSAPublicKey rsaPublicKey = (RSAPublicKey)keyPair.getPublic();
-    
+    return createPrivateJWK(PadKeyType.RSA.generateKeyPair());
+  }
+
+  /**
+   * Installs the given key pair as the new key of this signature pad
+   * and returns the private key in JWK format. The key type, and with it
+   * the JWS algorithm, follows the key pair. Increments the version
+   * number and stores the public key for later verification.
+   * 
+   * @param keyPair a freshly generated RSA, EC P-256 or Ed25519 key pair
+   * @return the private key in JSON Web Key (JWK) format as a string
+   */
+  public String createPrivateJWK(KeyPair keyPair)
+  {
+    PadKeyType keyType = PadKeyType.of(keyPair.getPublic());
+
     // Increment version for key rotation
     version ++;
 
     String kid = uuid + "-" + version;
-    log.debug("create new JWK with key id={}", kid);
+    log.debug("create new {} JWK with key id={}", keyType, kid);
     
     // Build JWK with both public and private key components
-    RSAKey fullJwk = new RSAKey.Builder(rsaPublicKey)
-      .privateKey(privateKey)
-      .keyUse(com.nimbusds.jose.jwk.KeyUse.SIGNATURE)
-      .algorithm(com.nimbusds.jose.JWSAlgorithm.RS256)
-      .keyID(kid)
-      .build();
+    JWK fullJwk = keyType.toPrivateJWK(keyPair, kid);
     
     // Store public key for verification
     publicJwk = fullJwk.toPublicJWK().toJSONObject();
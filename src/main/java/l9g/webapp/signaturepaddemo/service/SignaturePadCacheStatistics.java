@@ -0,0 +1,39 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+/**
+ * Snapshot of the counters of the in-memory signature pad registry.
+ *
+ * @param size number of signature pads currently cached
+ * @param hits lookups served from memory
+ * @param misses lookups that had to go to disk
+ * @param evictions entries dropped because the registry was full
+ * @param diskLoads successful reads of a signature pad JSON file
+ * @param diskLoadNanos total time spent in those reads
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record SignaturePadCacheStatistics(
+  int size,
+  long hits,
+  long misses,
+  long evictions,
+  long diskLoads,
+  long diskLoadNanos
+  )
+  {
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.security.KeyPair;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Pool of pre-generated key pairs for provisioning signature pads.
+ *
+ * <p>RSA key generation takes long and varies a lot, so key pairs are generated
+ * ahead of time on a single low priority background thread. Whenever the
+ * pool drops to the low-water mark it is refilled to its target size. If the
+ * pool is empty, the key pair is generated on the calling thread.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+public class SignaturePadKeyPool
+{
+  /** Type of the key pairs generated for new signature pads */
+  @Value("${app.key-pool.key-type:RSA}")
+  private PadKeyType keyType;
+
+  /** Number of key pairs the pool is refilled to, 0 disables the pool */
+  @Value("${app.key-pool.target-size:8}")
+  private int targetSize;
+
+  /** Pool depth which triggers a refill */
+  @Value("${app.key-pool.low-water:2}")
+  private int lowWater;
+
+  private BlockingQueue<KeyPair> pool;
+
+  private ExecutorService generator;
+
+  private final AtomicBoolean refilling = new AtomicBoolean();
+
+  private final LongAdder generated = new LongAdder();
+
+  private final LongAdder generatedInline = new LongAdder();
+
+  private final LongAdder taken = new LongAdder();
+
+  private final LongAdder generationNanos = new LongAdder();
+
+  private final AtomicLong maxGenerationNanos = new AtomicLong();
+
+  /**
+   * Starts filling the pool.
+   */
+  @PostConstruct
+  public void init()
+  {
+    pool = new LinkedBlockingQueue<>(Math.max(1, targetSize));
+    generator = Executors.newSingleThreadExecutor(r ->
+    {
+      Thread thread = new Thread(r, "key-pool-generator");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    log.info("Signature pad key pool: {} keys, target size {}, low water {}",
+      keyType, targetSize, lowWater);
+    refill();
+  }
+
+  /**
+   * Stops the background generation.
+   */
+  @PreDestroy
+  public void close()
+  {
+    generator.shutdownNow();
+  }
+
+  /**
+   * Takes a key pair from the pool, generating one inline if the pool is
+   * empty, and triggers a refill when the low-water mark is reached.
+   *
+   * @return a key pair of the configured type never handed out before
+   * @throws NoSuchAlgorithmException if the key algorithm is not available
+   */
+  public KeyPair take()
+    throws NoSuchAlgorithmException
+  {
+    taken.increment();
+    KeyPair keyPair = pool.poll();
+
+    if(keyPair == null)
+    {
+      log.debug("key pool empty, generating inline");
+      keyPair = generate();
+      generatedInline.increment();
+    }
+
+    if(pool.size() <= lowWater)
+    {
+      refill();
+    }
+
+    return keyPair;
+  }
+
+  /**
+   * @return the type of the key pairs handed out by this pool
+   */
+  public PadKeyType getKeyType()
+  {
+    return keyType;
+  }
+
+  /**
+   * @return current gauges and counters of the pool
+   */
+  public KeyPoolStatistics getStatistics()
+  {
+    return new KeyPoolStatistics(
+      keyType.name(),
+      pool.size(),
+      targetSize,
+      generated.sum(),
+      generatedInline.sum(),
+      taken.sum(),
+      generationNanos.sum(),
+      maxGenerationNanos.get()
+    );
+  }
+
+  /**
+   * Schedules a background refill unless one is already running.
+   */
+  private void refill()
+  {
+    if(targetSize <= 0 ||  ! refilling.compareAndSet(false, true))
+    {
+      return;
+    }
+
+    try
+    {
+      generator.execute(() ->
+      {
+        boolean refilled = false;
+        try
+        {
+          while(pool.size() < targetSize &&  ! Thread.currentThread().isInterrupted())
+          {
+            KeyPair keyPair = generate();
+            generated.increment();
+            if( ! pool.offer(keyPair))
+            {
+              break;
+            }
+          }
+          log.debug("key pool refilled to {}", pool.size());
+          refilled = ! Thread.currentThread().isInterrupted();
+        }
+        catch(NoSuchAlgorithmException | RuntimeException e)
+        {
+          log.error("key pool refill failed", e);
+        }
+        finally
+        {
+          refilling.set(false);
+        }
+
+        // takes draining the pool while the flag was still set skipped
+        // their refill, so check again now that it is cleared
+        if(refilled && pool.size() <= lowWater)
+        {
+          refill();
+        }
+      });
+    }
+    catch(RejectedExecutionException e)
+    {
+      refilling.set(false);
+    }
+  }
+
+  private KeyPair generate()
+    throws NoSuchAlgorithmException
+  {
+    long start = System.nanoTime();
+    KeyPair keyPair = keyType.generateKeyPair();
+    long nanos = System.nanoTime() - start;
+    generationNanos.add(nanos);
+    maxGenerationNanos.accumulateAndGet(nanos, Math::max);
+    return keyPair;
+  }
+
+}
@@ -17,7 +17,10 @@ package l9g.webapp.signaturepaddemo.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -26,18 +29,36 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service class for managing signature pad operations and data persistence.
  * Handles creation, storage, and retrieval of signature pad configurations
  * using JSON file-based storage system.
  *
+ * <p>Loaded signature pads are kept in a bounded LRU registry which is updated
+ * write-through by {@link #storeSignaturePad(SignaturePad)}. Concurrent misses
+ * for the same UUID are merged into a single disk read. Cached pads are
+ * shared and never modified in place: callers change a
+ * {@link SignaturePad#copy()}, which replaces the cached entry only after it
+ * has been written to disk.</p>
+ *
  * @author Thorsten Ludewig (t.ludewig@gmail.com)
  */
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class SignaturePadService
 {
+  /** Records the timers of signature pad disk reads and writes */
+  private final ObservationRegistry observationRegistry;
+
   /** Object mapper for JSON serialization/deserialization with pretty printing */
   private final ObjectMapper objectMapper = new ObjectMapper()
     .enable(SerializationFeature.INDENT_OUTPUT);
@@ -46,8 +67,30 @@ public class SignaturePadService
   @Value("${app.signature-pad.store-dir:${user.home}/.signaturepads}")
   private String storeDir;
 
+  /** Maximum number of signature pads kept in the in-memory registry */
+  @Value("${app.signature-pad.cache-size:1000}")
+  private int cacheSize;
+
+  /** In-memory LRU registry of loaded signature pads, indexed by UUID */
+  private Map<String, SignaturePad> signaturePadCache;
+
+  /** Disk loads currently in flight, used to merge concurrent misses */
+  private final Map<String, CompletableFuture<SignaturePad>> pendingLoads =
+    new ConcurrentHashMap<>();
+
+  private final LongAdder cacheHits = new LongAdder();
+
+  private final LongAdder cacheMisses = new LongAdder();
+
+  private final LongAdder cacheEvictions = new LongAdder();
+
+  private final LongAdder diskLoads = new LongAdder();
+
+  private final LongAdder diskLoadNanos = new LongAdder();
+
   /**
-   * Initializes the service by creating the storage directory if it doesn't exist.
+   * Initializes the service by creating the storage directory if it doesn't exist
+   * and setting up the bounded signature pad registry.
    * Called automatically after bean construction.
    * 
    * @throws IOException if directory creation fails
@@ -62,6 +105,26 @@ public class SignaturePadService
       Files.createDirectories(dir);
       log.info("Created signature pad store directory: {}", dir);
     }
+
+    final int maxEntries = Math.max(1, cacheSize);
+    signaturePadCache = Collections.synchronizedMap(
+      new LinkedHashMap<String, SignaturePad>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, SignaturePad> eldest)
+      {
+        boolean evict = size() > maxEntries;
+        if(evict)
+        {
+          cacheEvictions.increment();
+        }
+        return evict;
+      }
+
+    });
+    log.debug("SignaturePad cache size: {}", maxEntries);
   }
 
   /**
@@ -96,6 +159,9 @@ public class SignaturePadService
   /**
    * Stores the given signature pad object as a JSON file.
    * The file is saved as {storeDir}/{uuid}.json with pretty-printed formatting.
+   * The in-memory registry is updated after the file has been written,
+   * so a failed write leaves the previously cached pad in place. The pad
+   * must not be modified after it has been stored.
    * 
    * @param pad the signature pad to store
    * @throws IOException if file writing fails
@@ -105,12 +171,16 @@ public class SignaturePadService
   {
     String filename = pad.getUuid() + ".json";
     Path file = Paths.get(storeDir, filename);
-    objectMapper.writeValue(file.toFile(), pad);
+    Observation.createNotStarted("signaturepad.store.write", observationRegistry)
+      .observeChecked(() -> objectMapper.writeValue(file.toFile(), pad));
+    signaturePadCache.put(pad.getUuid(), pad);
     log.info("SignaturePad stored: {}", file.toAbsolutePath());
   }
 
   /**
-   * Loads a signature pad object from the JSON file {storeDir}/{uuid}.json.
+   * Loads a signature pad by its UUID, served from the in-memory registry
+   * whenever possible. On a miss the JSON file {storeDir}/{uuid}.json is read
+   * once, even if several threads ask for the same UUID at the same time.
    * Returns null if the file does not exist.
    * 
    * @param uuid the unique identifier of the signature pad to load
@@ -120,10 +190,109 @@ public class SignaturePadService
   public SignaturePad loadSignaturePad(String uuid)
     throws IOException
   {
+    SignaturePad pad = signaturePadCache.get(uuid);
+    if(pad != null)
+    {
+      cacheHits.increment();
+      return pad;
+    }
+
+    cacheMisses.increment();
+
+    CompletableFuture<SignaturePad> load = new CompletableFuture<>();
+    CompletableFuture<SignaturePad> pending = pendingLoads.putIfAbsent(uuid, load);
+
+    if(pending != null)
+    {
+      // another thread is already reading this pad from disk
+      try
+      {
+        return pending.join();
+      }
+      catch(CompletionException e)
+      {
+        if(e.getCause() instanceof IOException ioe)
+        {
+          throw ioe;
+        }
+        throw e;
+      }
+    }
+
+    try
+    {
+      pad = readSignaturePad(uuid);
+      if(pad != null)
+      {
+        // never replace an entry written by storeSignaturePad in the meantime
+        SignaturePad stored = signaturePadCache.putIfAbsent(uuid, pad);
+        if(stored != null)
+        {
+          pad = stored;
+        }
+      }
+      load.complete(pad);
+      return pad;
+    }
+    catch(IOException | RuntimeException e)
+    {
+      load.completeExceptionally(e);
+      throw e;
+    }
+    finally
+    {
+      pendingLoads.remove(uuid, load);
+    }
+  }
+
+  /**
+   * Removes a signature pad from the in-memory registry.
+   * The next access reads it again from disk.
+   *
+   * @param uuid the unique identifier of the signature pad
+   */
+  public void evictSignaturePad(String uuid)
+  {
+    signaturePadCache.remove(uuid);
+  }
+
+  /**
+   * Returns a snapshot of the signature pad registry counters.
+   *
+   * @return current cache statistics
+   */
+  public SignaturePadCacheStatistics getCacheStatistics()
+  {
+    return new SignaturePadCacheStatistics(
+      signaturePadCache.size(),
+      cacheHits.sum(),
+      cacheMisses.sum(),
+      cacheEvictions.sum(),
+      diskLoads.sum(),
+      diskLoadNanos.sum()
+    );
+  }
+
+  /**
+   * Reads a signature pad object from the JSON file {storeDir}/{uuid}.json.
+   * Returns null if the file does not exist.
+   *
+   * @param uuid the unique identifier of the signature pad to read
+   * @return the signature pad instance or null if file not found
+   * @throws IOException if file reading or JSON parsing fails
+   */
+  private SignaturePad readSignaturePad(String uuid)
+    throws IOException
+  {
+    long start = System.nanoTime();
     Path file = Paths.get(storeDir, uuid + ".json");
     if(Files.exists(file))
     {
-      SignaturePad pad = objectMapper.readValue(file.toFile(), SignaturePad.class);
+      SignaturePad pad = Observation
+        .createNotStarted("signaturepad.store.load", observationRegistry)
+        .observeChecked(() -> objectMapper.readValue(file.toFile(), SignaturePad.class));
+      diskLoads.increment();
+      diskLoadNanos.add(System.nanoTime() - start);
       log.info("SignaturePad loaded: {}", file.toAbsolutePath());
       return pad;
     }
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+/**
+ * Location of one signed JWT inside the signature journal, or of a
+ * {subject}.jwt file of the former layout.
+ *
+ * @param subject the subject (user identifier) of the signed JWT
+ * @param timestamp time the signed JWT was stored (epoch millis), the
+ * modification time for a file of the former layout
+ * @param segment journal segment number, {@link #LEGACY_SEGMENT} for a file
+ * of the former layout
+ * @param offset byte offset of the record inside the segment
+ * @param length total record size
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record SignedJwtRecord(
+  String subject,
+  long timestamp,
+  long segment,
+  long offset,
+  int length
+  )
+{
+  /** Segment number of a {subject}.jwt file of the former layout */
+  public static final long LEGACY_SEGMENT = -1;
+
+  /**
+   * @return true if the signed JWT is a {subject}.jwt file of the former layout
+   */
+  public boolean isLegacy()
+  {
+    return segment == LEGACY_SEGMENT;
+  }
+
+}
@@ -15,34 +15,106 @@
  */
 package l9g.webapp.signaturepaddemo.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Service class for managing signed JWT storage and retrieval.
  * Handles persistence of signed JWTs to the file system for later verification
  * and audit purposes.
  *
+ * <p>Signed JWTs are appended to a segmented {@link SignatureJournal}, so every
+ * signature of a subject is kept. Files of the former {subject}.jwt layout
+ * are still readable as a fallback.</p>
+ *
+ * <p>The base64 encoded signature images ({@code sigpng}, {@code sigsvg}) are
+ * moved to the {@link SignatureBlobService} and replaced by "sha256:{hash}"
+ * references inside the stored payload. Such records are marked with a
+ * "blobref:" prefix, which a compact JWT never starts with, and only marked
+ * records are restored. The original compact JWT is restored byte for byte
+ * on load, so stored signatures remain verifiable.</p>
+ *
  * @author Thorsten Ludewig (t.ludewig@gmail.com)
  */
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class SignedJwtService
 {
+  /** Claims holding base64 encoded signature images */
+  private static final String[] IMAGE_CLAIMS =
+  {
+    "sigpng", "sigsvg"
+  };
+
+  /** File name suffix of the former {subject}.jwt layout */
+  private static final String LEGACY_SUFFIX = ".jwt";
+
+  /**
+   * Subjects which may be looked up: user identifiers, never a path.
+   * The first character excludes "." and the rest excludes separators.
+   */
+  private static final Pattern SUBJECT_PATTERN =
+    Pattern.compile("[A-Za-z0-9][A-Za-z0-9._@+-]{0,127}");
+
+  /** Marks a journal record whose image claims were moved to the blob store */
+  private static final String EXTRACTED_RECORD_PREFIX = "blobref:";
+
+  /** Prefix of a blob reference replacing an image claim value */
+  private static final String BLOB_REFERENCE_PREFIX = "sha256:";
+
+  /** Matches an image claim holding a blob reference, group 2 is the hash */
+  private static final Pattern BLOB_REFERENCE = Pattern.compile(
+    "(\"(?:" + String.join("|", IMAGE_CLAIMS) + ")\"\\s*:\\s*)\""
+    + BLOB_REFERENCE_PREFIX + "([0-9a-f]{64})\"");
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Content-addressed store for the signature images */
+  private final SignatureBlobService signatureBlobService;
+
+  /** Records the timer of signed JWT writes */
+  private final ObservationRegistry observationRegistry;
+
   /** Directory path for storing signed JWT files */
   @Value("${app.signed-jwt.store-dir:${user.home}/.signedjwt}")
   private String storeDir;
 
+  /** Size in bytes after which a new journal segment is started */
+  @Value("${app.signed-jwt.segment-size:67108864}")
+  private long segmentSize;
+
+  /** Force every journal append to disk before returning */
+  @Value("${app.signed-jwt.sync:true}")
+  private boolean sync;
+
+  private SignatureJournal journal;
+
   /**
-   * Initializes the service by creating the storage directory if it doesn't exist.
+   * Initializes the service by creating the storage directory if it doesn't exist
+   * and opening the signature journal.
    * Called automatically after bean construction.
    * 
    * @throws IOException if directory creation fails
@@ -57,36 +129,68 @@ public class SignedJwtService
       Files.createDirectories(dir);
       log.info("Created SignedJwt store directory: {}", dir);
     }
+
+    journal = new SignatureJournal(dir, segmentSize, sync);
+    journal.open();
+  }
+
+  /**
+   * Flushes and closes the signature journal.
+   *
+   * @throws IOException if closing the journal fails
+   */
+  @PreDestroy
+  public void close()
+    throws IOException
+  {
+    journal.close();
   }
 
   /**
-   * Stores a signed JWT to the file system.
-   * The JWT is saved as {storeDir}/{subject}.jwt using UTF-8 encoding.
+   * Appends a signed JWT to the signature journal.
+   * Earlier signatures of the same subject are kept.
+   * Signature images are stored in the blob store and referenced by hash.
    * 
    * @param subject the subject (user identifier) associated with the JWT
    * @param signedJWT the signed JWT string to store
-   * @throws IOException if file writing fails
+   * @throws IOException if writing to the journal fails
    */
   public void storeSignedJWT(String subject, String signedJWT)
     throws IOException
   {
-    Path file = Paths.get(storeDir, subject + ".jwt");
-    Files.writeString(file, signedJWT, StandardCharsets.UTF_8);
-    log.info("SignedJwt stored: {}", file.toAbsolutePath());
+    SignatureJournal.RecordLocation location = Observation
+      .createNotStarted("signaturepad.signedjwt.write", observationRegistry)
+      .observeChecked(() -> journal.append(String.valueOf(subject),
+      extractImages(signedJWT), System.currentTimeMillis()));
+    log.info("SignedJwt stored: subject={} segment={} offset={}",
+      subject, location.segment(), location.offset());
   }
 
   /**
-   * Loads a signed JWT from the file system by subject.
-   * Returns null if the file does not exist.
+   * Loads the most recent signed JWT of a subject.
+   * Falls back to a {storeDir}/{subject}.jwt file of the former layout.
+   * Returns null if nothing is stored for the subject.
    * 
    * @param subject the subject (user identifier) whose JWT to load
    * @return the signed JWT string or null if not found
-   * @throws IOException if file reading fails
+   * @throws IOException if reading fails
    */
   public String loadSignedJWT(String subject)
     throws IOException
   {
-    Path file = Paths.get(storeDir, subject + ".jwt");
+    List<SignatureJournal.RecordLocation> locations = journal.findBySubject(subject);
+    if( ! locations.isEmpty())
+    {
+      return restoreImages(journal.read(locations.get(locations.size() - 1)));
+    }
+
+    if( ! isValidSubject(subject))
+    {
+      log.warn("SignedJWT lookup rejected, invalid subject");
+      return null;
+    }
+
+    Path file = Paths.get(storeDir, subject + LEGACY_SUFFIX);
     
     if(Files.exists(file))
     {
@@ -99,4 +203,257 @@ public class SignedJwtService
     return null;
   }
 
+  /**
+   * Checks that a subject is a plain user identifier, so it can safely be
+   * used as file name of the former layout.
+   *
+   * @param subject the subject (user identifier) to check
+   * @return true if the subject may be looked up
+   */
+  public static boolean isValidSubject(String subject)
+  {
+    return subject != null && SUBJECT_PATTERN.matcher(subject).matches();
+  }
+
+  /**
+   * Loads all signed JWTs of a subject, oldest first.
+   *
+   * @param subject the subject (user identifier) whose JWTs to load
+   * @return list of signed JWT strings, empty if none is stored
+   * @throws IOException if reading the journal fails
+   */
+  public List<String> loadSignedJWTHistory(String subject)
+    throws IOException
+  {
+    List<String> list = new ArrayList<>();
+    for(SignatureJournal.RecordLocation location : journal.findBySubject(subject))
+    {
+      list.add(restoreImages(journal.read(location)));
+    }
+    return list;
+  }
+
+  /**
+   * Loads all signed JWTs stored within a time range, ordered by time.
+   *
+   * @param from lower bound (inclusive)
+   * @param to upper bound (exclusive)
+   * @return list of signed JWT strings
+   * @throws IOException if reading the journal fails
+   */
+  public List<String> loadSignedJWTs(Instant from, Instant to)
+    throws IOException
+  {
+    List<String> list = new ArrayList<>();
+    for(SignatureJournal.RecordLocation location :
+      journal.findByTime(from.toEpochMilli(), to.toEpochMilli()))
+    {
+      list.add(restoreImages(journal.read(location)));
+    }
+    return list;
+  }
+
+  /**
+   * Lists all records of the signature journal, ordered by time, followed
+   * by the {subject}.jwt files of the former layout, ordered by
+   * modification time.
+   * Only the record locations are returned, the signed JWTs are read with
+   * {@link #loadSignedJWT(SignedJwtRecord)}, so the whole journal can be
+   * processed without holding it in memory.
+   *
+   * @return list of journal records and former layout files
+   * @throws IOException if the store directory can not be listed
+   */
+  public List<SignedJwtRecord> listSignedJWTRecords()
+    throws IOException
+  {
+    List<SignedJwtRecord> list = new ArrayList<>();
+    for(SignatureJournal.RecordLocation location : journal.findAll())
+    {
+      list.add(new SignedJwtRecord(location.subject(), location.timestamp(),
+        location.segment(), location.offset(), location.length()));
+    }
+
+    List<SignedJwtRecord> legacy = new ArrayList<>();
+    try(DirectoryStream<Path> files =
+      Files.newDirectoryStream(Paths.get(storeDir), "*" + LEGACY_SUFFIX))
+    {
+      for(Path file : files)
+      {
+        if(Files.isRegularFile(file))
+        {
+          String name = file.getFileName().toString();
+          String subject = name.substring(0, name.length() - LEGACY_SUFFIX.length());
+          int length = (int)Math.min(Files.size(file), Integer.MAX_VALUE);
+          legacy.add(new SignedJwtRecord(subject,
+            Files.getLastModifiedTime(file).toMillis(),
+            SignedJwtRecord.LEGACY_SEGMENT, 0, length));
+        }
+      }
+    }
+    legacy.sort(Comparator.comparingLong(SignedJwtRecord::timestamp));
+    list.addAll(legacy);
+    return list;
+  }
+
+  /**
+   * Loads the signed JWT of a journal record.
+   *
+   * @param record a record returned by {@link #listSignedJWTRecords()}
+   * @return the original compact signed JWT
+   * @throws IOException if reading the journal, the file or a signature image fails
+   */
+  public String loadSignedJWT(SignedJwtRecord record)
+    throws IOException
+  {
+    if(record.isLegacy())
+    {
+      return Files.readString(Paths.get(storeDir, record.subject() + LEGACY_SUFFIX),
+        StandardCharsets.UTF_8);
+    }
+    return restoreImages(journal.read(new SignatureJournal.RecordLocation(
+      record.segment(), record.offset(), record.length(),
+      record.timestamp(), record.subject())));
+  }
+
+  /**
+   * Moves the image claims of a compact JWT into the blob store and returns
+   * the marked JWT with "sha256:{hash}" references in their place. The JWT is
+   * returned unchanged if the exact original cannot be restored from the result.
+   */
+  private String extractImages(String signedJWT)
+    throws IOException
+  {
+    String[] parts = signedJWT.split("\\.");
+    if(parts.length != 3)
+    {
+      return signedJWT;
+    }
+
+    String payload;
+    JsonNode claims;
+    try
+    {
+      payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+      claims = objectMapper.readTree(payload);
+    }
+    catch(IllegalArgumentException | IOException e)
+    {
+      log.warn("JWT payload can not be parsed, storing it unchanged");
+      return signedJWT;
+    }
+
+    String stripped = payload;
+    boolean extracted = false;
+
+    for(String claim : IMAGE_CLAIMS)
+    {
+      JsonNode node = claims.get(claim);
+      if(node == null ||  ! node.isTextual())
+      {
+        continue;
+      }
+
+      String value = node.asText();
+      String quoted = "\"" + value + "\"";
+      int index = stripped.indexOf(quoted);
+      if(index < 0 || stripped.indexOf(quoted, index + 1) >= 0)
+      {
+        continue;
+      }
+
+      byte[] image;
+      try
+      {
+        image = Base64.getDecoder().decode(value);
+      }
+      catch(IllegalArgumentException e)
+      {
+        continue;
+      }
+
+      String hash = signatureBlobService.storeBlob(image);
+      stripped = stripped.substring(0, index)
+        + "\"" + BLOB_REFERENCE_PREFIX + hash + "\""
+        + stripped.substring(index + quoted.length());
+      extracted = true;
+    }
+
+    if( ! extracted)
+    {
+      return signedJWT;
+    }
+
+    String record = EXTRACTED_RECORD_PREFIX + parts[0] + "."
+      + Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(stripped.getBytes(StandardCharsets.UTF_8))
+      + "." + parts[2];
+
+    String restored;
+    try
+    {
+      restored = restoreImages(record);
+    }
+    catch(IOException e)
+    {
+      restored = null;
+    }
+
+    if( ! signedJWT.equals(restored))
+    {
+      log.warn("JWT can not be restored from blob references, storing it unchanged");
+      return signedJWT;
+    }
+
+    return record;
+  }
+
+  /**
+   * Replaces the "sha256:{hash}" references of a marked journal record by
+   * the base64 encoded blobs, restoring the original compact JWT. Records
+   * without the mark are stored JWTs and returned unchanged, even if a claim
+   * happens to contain a reference-like text.
+   */
+  private String restoreImages(String record)
+    throws IOException
+  {
+    if( ! record.startsWith(EXTRACTED_RECORD_PREFIX))
+    {
+      return record;
+    }
+
+    String[] parts = record.substring(EXTRACTED_RECORD_PREFIX.length()).split("\\.");
+    if(parts.length != 3)
+    {
+      throw new IOException("Invalid signature journal record");
+    }
+
+    String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+    Matcher matcher = BLOB_REFERENCE.matcher(payload);
+
+    if( ! matcher.find())
+    {
+      throw new IOException("Signature journal record without image reference");
+    }
+
+    StringBuilder restored = new StringBuilder(payload.length());
+    do
+    {
+      byte[] image = signatureBlobService.loadBlob(matcher.group(2));
+      if(image == null)
+      {
+        throw new IOException("Signature image blob missing: " + matcher.group(2));
+      }
+      matcher.appendReplacement(restored, Matcher.quoteReplacement(
+        matcher.group(1) + "\"" + Base64.getEncoder().encodeToString(image) + "\""));
+    }
+    while(matcher.find());
+    matcher.appendTail(restored);
+
+    return parts[0] + "."
+      + Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(restored.toString().getBytes(StandardCharsets.UTF_8))
+      + "." + parts[2];
+  }
+
 }
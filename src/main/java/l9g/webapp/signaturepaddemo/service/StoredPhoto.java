@@ -0,0 +1,37 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+/**
+ * A card photo written to the photo store.
+ *
+ * @param cardNumber the card number the photo belongs to
+ * @param side the side of the card, front or back
+ * @param filename the file name within the card directory
+ * @param size the number of bytes written
+ * @param sha256 the hex encoded SHA-256 of the photo
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record StoredPhoto(
+  String cardNumber,
+  String side,
+  String filename,
+  long size,
+  String sha256
+  )
+{
+}
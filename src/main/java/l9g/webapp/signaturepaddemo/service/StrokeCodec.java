@@ -0,0 +1,205 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary encoding of a {@link StrokeSignature}.
+ *
+ * <p>All integers are unsigned LEB128 varints, signed values are zigzag
+ * encoded. Coordinates are stored in 1/10 pixel, widths in 1/100 pixel.</p>
+ * <pre>
+ *   byte[3] "SP" 0x01 (magic and version)
+ *   varint  width, height
+ *   varint  background color (0xAARRGGBB)
+ *   varint  start time (epoch millis)
+ *   varint  stroke count
+ *   per stroke:
+ *     varint  pen color (0xRRGGBB)
+ *     varint  min width, max width
+ *     varint  point count
+ *     per point:
+ *       zigzag  dx, dy   (relative to the previous point)
+ *       byte    pressure (0..255)
+ *       varint  dt       (millis since the previous point)
+ * </pre>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public final class StrokeCodec
+{
+  private static final byte[] MAGIC =
+  {
+    'S', 'P', 1
+  };
+
+  /** Upper bound for counts, protects against malicious input */
+  private static final int MAX_COUNT = 1 << 20;
+
+  private StrokeCodec()
+  {
+  }
+
+  /**
+   * Encodes a stroke signature.
+   *
+   * @param signature the signature to encode
+   * @return the binary encoding
+   */
+  public static byte[] encode(StrokeSignature signature)
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.writeBytes(MAGIC);
+    writeVarint(out, signature.width());
+    writeVarint(out, signature.height());
+    writeVarint(out, signature.backgroundColor() & 0xffffffffL);
+    writeVarint(out, signature.startTime());
+    writeVarint(out, signature.strokes().size());
+
+    long x = 0, y = 0, time = signature.startTime();
+
+    for(StrokeSignature.Stroke stroke : signature.strokes())
+    {
+      writeVarint(out, stroke.penColor() & 0xffffff);
+      writeVarint(out, Math.round(stroke.minWidth() * 100));
+      writeVarint(out, Math.round(stroke.maxWidth() * 100));
+      writeVarint(out, stroke.points().size());
+
+      for(StrokeSignature.Point point : stroke.points())
+      {
+        long px = Math.round(point.x() * 10);
+        long py = Math.round(point.y() * 10);
+        writeVarint(out, zigzag(px - x));
+        writeVarint(out, zigzag(py - y));
+        out.write(Math.round(Math.max(0, Math.min(1, point.pressure())) * 255));
+        writeVarint(out, Math.max(0, point.time() - time));
+        x = px;
+        y = py;
+        time = Math.max(time, point.time());
+      }
+    }
+
+    return out.toByteArray();
+  }
+
+  /**
+   * Decodes a stroke signature.
+   *
+   * @param data the binary encoding
+   * @return the decoded signature
+   * @throws IllegalArgumentException if the data is not a valid encoding
+   */
+  public static StrokeSignature decode(byte[] data)
+  {
+    ByteBuffer in = ByteBuffer.wrap(data);
+
+    try
+    {
+      for(byte b : MAGIC)
+      {
+        if(in.get() != b)
+        {
+          throw new IllegalArgumentException("Unknown stroke format");
+        }
+      }
+
+      int width = (int)readCount(in);
+      int height = (int)readCount(in);
+      int backgroundColor = (int)readVarint(in);
+      long startTime = readVarint(in);
+      int strokeCount = (int)readCount(in);
+
+      List<StrokeSignature.Stroke> strokes = new ArrayList<>(Math.min(strokeCount, in.remaining()));
+      long x = 0, y = 0, time = startTime;
+
+      for(int s = 0; s < strokeCount; s ++)
+      {
+        int penColor = (int)readVarint(in);
+        float minWidth = readVarint(in) / 100f;
+        float maxWidth = readVarint(in) / 100f;
+        int pointCount = (int)readCount(in);
+
+        List<StrokeSignature.Point> points = new ArrayList<>(Math.min(pointCount, in.remaining()));
+        for(int p = 0; p < pointCount; p ++)
+        {
+          x += unzigzag(readVarint(in));
+          y += unzigzag(readVarint(in));
+          float pressure = (in.get() & 0xff) / 255f;
+          time += readVarint(in);
+          points.add(new StrokeSignature.Point(x / 10f, y / 10f, pressure, time));
+        }
+        strokes.add(new StrokeSignature.Stroke(penColor, minWidth, maxWidth, points));
+      }
+
+      return new StrokeSignature(width, height, backgroundColor, startTime, strokes);
+    }
+    catch(BufferUnderflowException e)
+    {
+      throw new IllegalArgumentException("Truncated stroke data", e);
+    }
+  }
+
+  private static void writeVarint(ByteArrayOutputStream out, long value)
+  {
+    while((value & ~0x7fL) != 0)
+    {
+      out.write((int)((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    out.write((int)value);
+  }
+
+  private static long readVarint(ByteBuffer in)
+  {
+    long value = 0;
+    for(int shift = 0; shift < 64; shift += 7)
+    {
+      byte b = in.get();
+      value |= (long)(b & 0x7f) << shift;
+      if((b & 0x80) == 0)
+      {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  private static long readCount(ByteBuffer in)
+  {
+    long count = readVarint(in);
+    if(count > MAX_COUNT)
+    {
+      throw new IllegalArgumentException("Count out of range: " + count);
+    }
+    return count;
+  }
+
+  private static long zigzag(long value)
+  {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unzigzag(long value)
+  {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+}
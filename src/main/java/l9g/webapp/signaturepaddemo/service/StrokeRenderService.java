@@ -0,0 +1,293 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import jakarta.annotation.PostConstruct;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.imageio.ImageIO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Renders stroke-vector signatures to PNG or SVG on demand.
+ * Rendered images are kept in a bounded LRU cache keyed by the SHA-256 of
+ * the stroke data, the output format and the requested size.
+ *
+ * <p>Line widths follow signature_pad: the width of a segment shrinks with
+ * the pen velocity, from maxWidth down to minWidth.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+public class StrokeRenderService
+{
+  /** Supported output formats */
+  public enum Format
+  {
+    PNG, SVG
+  }
+
+  /** Largest width or height a signature can be rendered at */
+  public static final int MAX_SIZE = 4096;
+
+  /** Largest width or height of the preview sent to a waiting operator */
+  public static final int PREVIEW_SIZE = 480;
+
+  /** Weight of the previous velocity, as signature_pad's velocityFilterWeight */
+  private static final float VELOCITY_FILTER_WEIGHT = 0.7f;
+
+  /** Maximum number of rendered images kept in memory */
+  @Value("${app.signature-render.cache-size:256}")
+  private int cacheSize;
+
+  private Map<String, byte[]> renderCache;
+
+  /**
+   * Sets up the bounded render cache.
+   */
+  @PostConstruct
+  public void init()
+  {
+    final int maxEntries = Math.max(1, cacheSize);
+    renderCache = Collections.synchronizedMap(
+      new LinkedHashMap<String, byte[]>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest)
+      {
+        return size() > maxEntries;
+      }
+
+    });
+  }
+
+  /**
+   * Renders encoded stroke data, using the render cache.
+   * Signatures are only scaled down, never beyond their original canvas.
+   *
+   * @param strokeData the binary stroke encoding (see {@link StrokeCodec})
+   * @param format the output format
+   * @param width output width in pixels, 0 for the original canvas width
+   * @param height output height in pixels, 0 for the original canvas height
+   * @return the rendered image
+   * @throws IOException if image encoding fails
+   * @throws IllegalArgumentException if the stroke data is invalid or the
+   * size exceeds the original canvas
+   */
+  public byte[] render(byte[] strokeData, Format format, int width, int height)
+    throws IOException
+  {
+    if(width < 0 || height < 0 || width > MAX_SIZE || height > MAX_SIZE)
+    {
+      throw new IllegalArgumentException("Invalid image size " + width + "x" + height);
+    }
+
+    String key = SignatureBlobService.sha256(strokeData)
+      + "/" + format + "/" + width + "x" + height;
+
+    byte[] image = renderCache.get(key);
+    if(image == null)
+    {
+      StrokeSignature signature = StrokeCodec.decode(strokeData);
+      int originalWidth = Math.max(1, Math.min(MAX_SIZE, signature.width()));
+      int originalHeight = Math.max(1, Math.min(MAX_SIZE, signature.height()));
+      if(width > originalWidth || height > originalHeight)
+      {
+        throw new IllegalArgumentException("Image size " + width + "x" + height
+          + " exceeds the original size " + originalWidth + "x" + originalHeight);
+      }
+      int w = width > 0 ? width : originalWidth;
+      int h = height > 0 ? height : originalHeight;
+      image = (format == Format.PNG)
+        ? renderPng(signature, w, h) : renderSvg(signature, w, h);
+      renderCache.put(key, image);
+      log.debug("rendered {} {}x{} ({} bytes)", format, w, h, image.length);
+    }
+    return image;
+  }
+
+  /**
+   * Renders a small PNG preview of encoded stroke data, scaled to fit
+   * {@link #PREVIEW_SIZE} with the aspect ratio of the original canvas.
+   *
+   * @param strokeData the binary stroke encoding (see {@link StrokeCodec})
+   * @return the rendered PNG
+   * @throws IOException if image encoding fails
+   * @throws IllegalArgumentException if the stroke data is invalid
+   */
+  public byte[] renderPreview(byte[] strokeData)
+    throws IOException
+  {
+    StrokeSignature signature = StrokeCodec.decode(strokeData);
+    int width = Math.max(1, Math.min(MAX_SIZE, signature.width()));
+    int height = Math.max(1, Math.min(MAX_SIZE, signature.height()));
+    double scale = Math.min(1.0, (double)PREVIEW_SIZE / Math.max(width, height));
+    return render(strokeData, Format.PNG,
+      Math.max(1, (int)(width * scale)), Math.max(1, (int)(height * scale)));
+  }
+
+  private byte[] renderPng(StrokeSignature signature, int width, int height)
+    throws IOException
+  {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    Graphics2D g = image.createGraphics();
+    try
+    {
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+      g.setColor(new Color(signature.backgroundColor(), true));
+      g.fillRect(0, 0, width, height);
+      g.scale(scaleX(signature, width), scaleY(signature, height));
+
+      for(StrokeSignature.Stroke stroke : signature.strokes())
+      {
+        g.setColor(new Color(stroke.penColor()));
+        List<StrokeSignature.Point> points = stroke.points();
+
+        if(points.size() == 1)
+        {
+          StrokeSignature.Point p = points.get(0);
+          float r = (stroke.minWidth() + stroke.maxWidth()) / 4;
+          g.fill(new Ellipse2D.Float(p.x() - r, p.y() - r, 2 * r, 2 * r));
+          continue;
+        }
+
+        float[] widths = segmentWidths(stroke);
+        for(int i = 1; i < points.size(); i ++)
+        {
+          StrokeSignature.Point a = points.get(i - 1);
+          StrokeSignature.Point b = points.get(i);
+          g.setStroke(new BasicStroke(widths[i - 1],
+            BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+          g.draw(new Line2D.Float(a.x(), a.y(), b.x(), b.y()));
+        }
+      }
+    }
+    finally
+    {
+      g.dispose();
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", out);
+    return out.toByteArray();
+  }
+
+  private byte[] renderSvg(StrokeSignature signature, int width, int height)
+  {
+    StringBuilder svg = new StringBuilder(4096);
+    svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\"")
+      .append(" width=\"").append(width).append('"')
+      .append(" height=\"").append(height).append('"')
+      .append(" viewBox=\"0 0 ").append(signature.width()).append(' ')
+      .append(signature.height()).append("\">");
+
+    if(((signature.backgroundColor() >>> 24) & 0xff) != 0)
+    {
+      svg.append("<rect width=\"100%\" height=\"100%\" fill=\"")
+        .append(hexColor(signature.backgroundColor())).append("\"/>");
+    }
+
+    for(StrokeSignature.Stroke stroke : signature.strokes())
+    {
+      String color = hexColor(stroke.penColor());
+      List<StrokeSignature.Point> points = stroke.points();
+
+      if(points.size() == 1)
+      {
+        StrokeSignature.Point p = points.get(0);
+        svg.append(String.format(Locale.ROOT,
+          "<circle cx=\"%.1f\" cy=\"%.1f\" r=\"%.2f\" fill=\"%s\"/>",
+          p.x(), p.y(), (stroke.minWidth() + stroke.maxWidth()) / 4, color));
+        continue;
+      }
+
+      svg.append("<g fill=\"none\" stroke=\"").append(color)
+        .append("\" stroke-linecap=\"round\" stroke-linejoin=\"round\">");
+      float[] widths = segmentWidths(stroke);
+      for(int i = 1; i < points.size(); i ++)
+      {
+        StrokeSignature.Point a = points.get(i - 1);
+        StrokeSignature.Point b = points.get(i);
+        svg.append(String.format(Locale.ROOT,
+          "<path d=\"M%.1f %.1fL%.1f %.1f\" stroke-width=\"%.2f\"/>",
+          a.x(), a.y(), b.x(), b.y(), widths[i - 1]));
+      }
+      svg.append("</g>");
+    }
+
+    svg.append("</svg>");
+    return svg.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Computes the line width of every segment from the filtered pen velocity,
+   * the same way signature_pad does.
+   */
+  private static float[] segmentWidths(StrokeSignature.Stroke stroke)
+  {
+    List<StrokeSignature.Point> points = stroke.points();
+    float[] widths = new float[points.size() - 1];
+    float velocity = 0;
+
+    for(int i = 1; i < points.size(); i ++)
+    {
+      StrokeSignature.Point a = points.get(i - 1);
+      StrokeSignature.Point b = points.get(i);
+      long dt = b.time() - a.time();
+      float distance = (float)Math.hypot(b.x() - a.x(), b.y() - a.y());
+      float v = dt > 0 ? distance / dt : velocity;
+      velocity = VELOCITY_FILTER_WEIGHT * v + (1 - VELOCITY_FILTER_WEIGHT) * velocity;
+      widths[i - 1] = Math.max(stroke.maxWidth() / (velocity + 1), stroke.minWidth());
+    }
+
+    return widths;
+  }
+
+  private static double scaleX(StrokeSignature signature, int width)
+  {
+    return signature.width() > 0 ? (double)width / signature.width() : 1;
+  }
+
+  private static double scaleY(StrokeSignature signature, int height)
+  {
+    return signature.height() > 0 ? (double)height / signature.height() : 1;
+  }
+
+  private static String hexColor(int rgb)
+  {
+    return String.format("#%06x", rgb & 0xffffff);
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import java.util.List;
+
+/**
+ * Vector representation of a handwritten signature, as captured by
+ * signature_pad's toData(): the canvas size and a list of strokes.
+ *
+ * @param width canvas width in CSS pixels
+ * @param height canvas height in CSS pixels
+ * @param backgroundColor background color as 0xAARRGGBB
+ * @param startTime timestamp of the first point (epoch millis)
+ * @param strokes the pen strokes in drawing order
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record StrokeSignature(
+  int width,
+  int height,
+  int backgroundColor,
+  long startTime,
+  List<Stroke> strokes
+  )
+  {
+
+  /**
+   * One continuous pen stroke.
+   *
+   * @param penColor pen color as 0xRRGGBB
+   * @param minWidth minimum line width in CSS pixels
+   * @param maxWidth maximum line width in CSS pixels
+   * @param points the sampled points
+   */
+  public record Stroke(int penColor, float minWidth, float maxWidth, List<Point> points)
+    {
+  }
+
+  /**
+   * One sampled pen position.
+   *
+   * @param x horizontal position in CSS pixels
+   * @param y vertical position in CSS pixels
+   * @param pressure pen pressure 0..1
+   * @param time timestamp (epoch millis)
+   */
+  public record Point(float x, float y, float pressure, long time)
+    {
+  }
+
+}
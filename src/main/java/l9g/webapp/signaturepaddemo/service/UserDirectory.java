@@ -0,0 +1,66 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import java.io.IOException;
+import l9g.webapp.signaturepaddemo.dto.DtoUserInfo;
+
+/**
+ * Lookup of card holders by card number.
+ * Implementations are selected with {@code app.user-directory.type} and are
+ * always accessed through the caching {@link UserDirectoryService}.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public interface UserDirectory
+{
+  /**
+   * Looks up the user a card has been issued to.
+   *
+   * @param cardNumber the card number as printed on the card
+   * @return the user information or null if the card is unknown
+   * @throws IOException if the backing store can not be read
+   */
+  DtoUserInfo findByCardNumber(String cardNumber)
+    throws IOException;
+
+  /**
+   * Checks whether a card has been issued. Implementations with an index
+   * should answer this without loading the card holder.
+   *
+   * @param cardNumber the card number as printed on the card
+   * @return true if the card is known
+   * @throws IOException if the backing store can not be read
+   */
+  default boolean contains(String cardNumber)
+    throws IOException
+  {
+    return findByCardNumber(cardNumber) != null;
+  }
+
+  /**
+   * Identifies the current content of the directory. Implementations which
+   * replace their content at runtime return a new value after every
+   * replacement, so cached lookups of an older generation are discarded.
+   *
+   * @return generation of the directory content
+   */
+  default long getGeneration()
+  {
+    return 0;
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import l9g.webapp.signaturepaddemo.dto.DtoUserInfo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Caching front of the configured {@link UserDirectory}.
+ *
+ * <p>Card holders are kept as pre-encoded JSON in a bounded LRU cache with a
+ * time to live, so hot cards are answered without a directory lookup, photo
+ * encoding or JSON serialization. Unknown card numbers are cached as well,
+ * with a shorter time to live. Entries cached before the directory replaced
+ * its content (see {@link UserDirectory#getGeneration()}) are not used.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class UserDirectoryService
+{
+  private final UserDirectory userDirectory;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  /** Maximum number of card numbers kept in the cache */
+  @Value("${app.user-directory.cache-size:1000}")
+  private int cacheSize;
+
+  /** Time to live in milliseconds of a cached card holder */
+  @Value("${app.user-directory.cache-ttl:300000}")
+  private long cacheTtl;
+
+  /** Time to live in milliseconds of a cached unknown card number */
+  @Value("${app.user-directory.negative-ttl:30000}")
+  private long negativeTtl;
+
+  /** LRU cache of encoded card holders, indexed by card number */
+  private Map<String, CachedUserInfo> userInfoCache;
+
+  /**
+   * A cached lookup result, json is null for unknown card numbers
+   */
+  private record CachedUserInfo(byte[] json, long expiresAt, long generation)
+    {
+  }
+
+  /**
+   * Sets up the bounded user info cache.
+   */
+  @PostConstruct
+  public void init()
+  {
+    final int maxEntries = Math.max(1, cacheSize);
+    userInfoCache = Collections.synchronizedMap(
+      new LinkedHashMap<String, CachedUserInfo>(16, 0.75f, true)
+    {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, CachedUserInfo> eldest)
+      {
+        return size() > maxEntries;
+      }
+
+    });
+    log.info("User directory {} with cache size {}",
+      userDirectory.getClass().getSimpleName(), maxEntries);
+  }
+
+  /**
+   * Returns the JSON encoded user information of a card holder.
+   *
+   * @param cardNumber the card number
+   * @return the encoded {@link DtoUserInfo} or null if the card is unknown
+   * @throws IOException if the user directory can not be read
+   */
+  public byte[] getUserInfoJson(String cardNumber)
+    throws IOException
+  {
+    long now = System.currentTimeMillis();
+    long generation = userDirectory.getGeneration();
+    CachedUserInfo cached = userInfoCache.get(cardNumber);
+
+    if(cached == null || cached.expiresAt() < now
+      || cached.generation() != generation)
+    {
+      DtoUserInfo userInfo = userDirectory.findByCardNumber(cardNumber);
+      if(userInfo == null)
+      {
+        cached = new CachedUserInfo(null, now + negativeTtl, generation);
+      }
+      else
+      {
+        cached = new CachedUserInfo(
+          objectMapper.writeValueAsBytes(userInfo), now + cacheTtl, generation);
+      }
+      userInfoCache.put(cardNumber, cached);
+    }
+
+    return cached.json();
+  }
+
+  /**
+   * Checks whether a card has been issued, without encoding the card holder.
+   *
+   * @param cardNumber the card number
+   * @return true if the card is known
+   * @throws IOException if the user directory can not be read
+   */
+  public boolean isKnownCard(String cardNumber)
+    throws IOException
+  {
+    return cardNumber != null && userDirectory.contains(cardNumber);
+  }
+
+  /**
+   * Removes a card number from the cache.
+   *
+   * @param cardNumber the card number
+   */
+  public void evict(String cardNumber)
+  {
+    userInfoCache.remove(cardNumber);
+  }
+
+  /**
+   * Removes all card numbers from the cache.
+   */
+  public void evictAll()
+  {
+    userInfoCache.clear();
+  }
+
+}
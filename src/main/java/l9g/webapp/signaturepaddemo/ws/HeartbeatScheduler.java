@@ -86,13 +86,26 @@ public class HeartbeatScheduler
 {
   private final SignaturePadWebSocketHandler webSockerHandler;
 
+  /** Duration of the last heartbeat run in nanoseconds */
+  private volatile long lastRunNanos;
+
   @Scheduled(fixedRateString = "${scheduler.heartbeat.rate:15000}")
   @Async
   public void heartbeatJob()
     throws IOException
   {
     log.trace("heartbeatJob 1");
+    long start = System.nanoTime();
     webSockerHandler.fireEventToAllSessions(new DtoEvent(DtoEvent.EVENT_HEARTBEAT));
+    lastRunNanos = System.nanoTime() - start;
+  }
+
+  /**
+   * @return duration of the last heartbeat run in nanoseconds
+   */
+  public long getLastRunNanos()
+  {
+    return lastRunNanos;
   }
 
 }
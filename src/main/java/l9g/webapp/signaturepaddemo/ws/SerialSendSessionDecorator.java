@@ -0,0 +1,207 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.ws;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+/**
+ * Session decorator running the sends of one signature pad session on the
+ * shared outbound executor, one at a time and in the order they were queued.
+ * At most one drain task per session is scheduled, so a stalled pad occupies
+ * a single executor thread and never blocks the caller.
+ *
+ * <p>Like Spring's {@code ConcurrentWebSocketSessionDecorator} the session
+ * is closed when a send takes longer than the send-time limit or the queued
+ * bytes exceed the buffer-size limit.</p>
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+@Slf4j
+class SerialSendSessionDecorator extends WebSocketSessionDecorator
+{
+  private final Executor sendExecutor;
+
+  private final int sendTimeLimit;
+
+  private final int bufferSizeLimit;
+
+  private final Queue<QueuedSend> queue = new ConcurrentLinkedQueue<>();
+
+  /** Bytes queued and not yet sent */
+  private final AtomicInteger bufferSize = new AtomicInteger();
+
+  /** Set while a drain task is scheduled or running */
+  private final AtomicBoolean draining = new AtomicBoolean();
+
+  /** Start of the running send in milliseconds, 0 if idle */
+  private volatile long sendStartTime;
+
+  private volatile boolean limitExceeded;
+
+  private record QueuedSend(int size, Runnable task)
+    {
+  }
+
+  SerialSendSessionDecorator(WebSocketSession session, Executor sendExecutor,
+    int sendTimeLimit, int bufferSizeLimit)
+  {
+    super(session);
+    this.sendExecutor = sendExecutor;
+    this.sendTimeLimit = sendTimeLimit;
+    this.bufferSizeLimit = bufferSizeLimit;
+  }
+
+  /**
+   * Queues a send behind all sends queued before. The task must call
+   * {@link #sendMessage} itself and handle its exceptions.
+   *
+   * @param size payload size of the message in bytes
+   * @param task the send to run on the outbound executor
+   *
+   * @throws SessionLimitExceededException if the session exceeded a limit and
+   * has been closed
+   * @throws RejectedExecutionException if the outbound executor is saturated;
+   * the send stays queued and runs with the next scheduled drain
+   */
+  void submit(int size, Runnable task)
+    throws SessionLimitExceededException
+  {
+    if(limitExceeded)
+    {
+      throw new SessionLimitExceededException(
+        "Session already closed as slow consumer", CloseStatus.SESSION_NOT_RELIABLE);
+    }
+
+    queue.add(new QueuedSend(size, task));
+    checkSessionLimits(bufferSize.addAndGet(size));
+    scheduleDrain();
+  }
+
+  /**
+   * @return bytes currently queued for this session
+   */
+  int getBufferSize()
+  {
+    return bufferSize.get();
+  }
+
+  /**
+   * @return milliseconds the running send takes so far, 0 if idle
+   */
+  long getTimeSinceSendStarted()
+  {
+    long start = sendStartTime;
+    return start > 0 ? System.currentTimeMillis() - start : 0;
+  }
+
+  private void checkSessionLimits(int queuedBytes)
+    throws SessionLimitExceededException
+  {
+    String reason = null;
+    long sendTime = getTimeSinceSendStarted();
+
+    if(sendTime > sendTimeLimit)
+    {
+      reason = "Send time " + sendTime + " (ms) exceeded the allowed limit "
+        + sendTimeLimit;
+    }
+    else if(queuedBytes > bufferSizeLimit)
+    {
+      reason = "Buffer size " + queuedBytes + " bytes exceeded the allowed limit "
+        + bufferSizeLimit;
+    }
+
+    if(reason != null)
+    {
+      limitExceeded = true;
+      queue.clear();
+      try
+      {
+        getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+      }
+      catch(IOException ex)
+      {
+        log.debug("can't close session {}: {}", getId(), ex.getMessage());
+      }
+      throw new SessionLimitExceededException(reason, CloseStatus.SESSION_NOT_RELIABLE);
+    }
+  }
+
+  private void scheduleDrain()
+  {
+    if(draining.compareAndSet(false, true))
+    {
+      try
+      {
+        sendExecutor.execute(this::drain);
+      }
+      catch(RejectedExecutionException ex)
+      {
+        draining.set(false);
+        throw ex;
+      }
+    }
+  }
+
+  private void drain()
+  {
+    try
+    {
+      QueuedSend send;
+      while( ! limitExceeded && (send = queue.poll()) != null)
+      {
+        sendStartTime = System.currentTimeMillis();
+        try
+        {
+          send.task().run();
+        }
+        finally
+        {
+          sendStartTime = 0;
+          bufferSize.addAndGet(-send.size());
+        }
+      }
+    }
+    finally
+    {
+      draining.set(false);
+      // pick up sends queued after the last poll
+      if( ! limitExceeded &&  ! queue.isEmpty())
+      {
+        try
+        {
+          scheduleDrain();
+        }
+        catch(RejectedExecutionException ex)
+        {
+          log.warn("outbound executor rejected drain of session {}", getId());
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.ws;
+
+/**
+ * Totals of the outbound sends to all signature pad sessions.
+ *
+ * @param sent messages sent successfully
+ * @param sendNanos total time from queueing to completion of the sent messages
+ * @param failed messages which could not be queued or sent
+ * @param evictions sessions closed as slow consumers
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record SignaturePadFanOutStatistics(
+  long sent,
+  long sendNanos,
+  long failed,
+  long evictions
+  )
+{
+}
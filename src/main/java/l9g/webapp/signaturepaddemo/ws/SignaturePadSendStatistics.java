@@ -0,0 +1,37 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.ws;
+
+/**
+ * Outbound queue state of one signature pad WebSocket session.
+ *
+ * @param sessionId the WebSocket session ID
+ * @param padUuid the unique identifier of the signature pad
+ * @param bufferSize bytes currently queued for the session
+ * @param timeSinceSendStarted milliseconds the current send is running, 0 if idle
+ * @param evictions slow-consumer evictions of the signature pad so far
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+public record SignaturePadSendStatistics(
+  String sessionId,
+  String padUuid,
+  int bufferSize,
+  long timeSinceSendStarted,
+  long evictions
+  )
+  {
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.ws;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * Thread-safe registry of the open signature pad WebSocket sessions.
+ * Sessions are indexed by session ID and by signature pad UUID, so events
+ * for a single pad do not need to scan all sessions.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+class SignaturePadSessionRegistry
+{
+  /** Active sessions indexed by session ID */
+  private final Map<String, WebSocketSession> sessionsBySessionId =
+    new ConcurrentHashMap<>();
+
+  /** Active sessions grouped by signature pad UUID */
+  private final Map<String, Set<WebSocketSession>> sessionsByPadUuid =
+    new ConcurrentHashMap<>();
+
+  /**
+   * Registers a session for the given signature pad.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   * @param session the WebSocket session to register
+   */
+  void add(String padUuid, WebSocketSession session)
+  {
+    sessionsBySessionId.put(session.getId(), session);
+    sessionsByPadUuid.compute(padUuid, (uuid, sessions) ->
+    {
+      if(sessions == null)
+      {
+        sessions = ConcurrentHashMap.newKeySet();
+      }
+      sessions.add(session);
+      return sessions;
+    });
+  }
+
+  /**
+   * Removes a session from both indexes. Unknown sessions are ignored.
+   * The session may be the registered instance or the native session it wraps.
+   *
+   * @param session the WebSocket session to remove
+   */
+  void remove(WebSocketSession session)
+  {
+    WebSocketSession registered = sessionsBySessionId.remove(session.getId());
+    if(registered != null)
+    {
+      String padUuid = padUuidOf(registered);
+      if(padUuid != null)
+      {
+        sessionsByPadUuid.computeIfPresent(padUuid, (uuid, sessions) ->
+        {
+          sessions.remove(registered);
+          return sessions.isEmpty() ? null : sessions;
+        });
+      }
+    }
+  }
+
+  /**
+   * Returns the live view of all sessions of one signature pad.
+   *
+   * @param padUuid the unique identifier of the signature pad
+   * @return the sessions of the pad, empty if none is connected
+   */
+  Collection<WebSocketSession> getSessionsByPadUuid(String padUuid)
+  {
+    Set<WebSocketSession> sessions = sessionsByPadUuid.get(padUuid);
+    return sessions != null ? sessions : Collections.emptySet();
+  }
+
+  /**
+   * Returns the live, weakly consistent view of all registered sessions.
+   *
+   * @return all registered sessions
+   */
+  Collection<WebSocketSession> getAllSessions()
+  {
+    return sessionsBySessionId.values();
+  }
+
+  /**
+   * @return number of registered sessions
+   */
+  int size()
+  {
+    return sessionsBySessionId.size();
+  }
+
+  /**
+   * Creates an immutable copy of the session ID to pad UUID mapping.
+   *
+   * @return snapshot of all registered sessions
+   */
+  Map<String, String> snapshot()
+  {
+    Map<String, String> snapshot = new HashMap<>();
+    sessionsBySessionId.forEach((id, session) ->
+    {
+      String padUuid = padUuidOf(session);
+      if(padUuid != null)
+      {
+        snapshot.put(id, padUuid);
+      }
+    });
+    return Collections.unmodifiableMap(snapshot);
+  }
+
+  static String padUuidOf(WebSocketSession session)
+  {
+    return (String)session.getAttributes()
+      .get(SignaturePadWebSocketConfig.SIGNATURE_PAD_UUID);
+  }
+
+}
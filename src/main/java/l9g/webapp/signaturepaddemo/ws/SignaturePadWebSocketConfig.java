@@ -18,18 +18,22 @@ package l9g.webapp.signaturepaddemo.ws;
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 import l9g.webapp.signaturepaddemo.service.SignaturePad;
 import l9g.webapp.signaturepaddemo.service.SignaturePadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketHttpHeaders;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -53,6 +57,26 @@ public class SignaturePadWebSocketConfig implements WebSocketConfigurer
 
   private final SignaturePadService signaturePadService;
 
+  /** Maximum time in milliseconds for sending one message to a signature pad */
+  @Value("${app.websocket.send-time-limit:10000}")
+  private int sendTimeLimit;
+
+  /** Maximum number of bytes buffered per signature pad session */
+  @Value("${app.websocket.buffer-size-limit:524288}")
+  private int bufferSizeLimit;
+
+  /** Number of threads sending outbound messages to signature pads */
+  @Value("${app.websocket.send-pool-size:8}")
+  private int sendPoolSize;
+
+  /** Maximum number of sessions waiting for a free send thread */
+  @Value("${app.websocket.send-queue-capacity:10000}")
+  private int sendQueueCapacity;
+
+  /** Run outbound sends on virtual threads, follows the Spring Boot switch */
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreadsEnabled;
+
   /**
    * Registers WebSocket handlers with the specified registry.
    * This method is called to configure the WebSocket handlers for the application.
@@ -83,7 +107,37 @@ public class SignaturePadWebSocketConfig implements WebSocketConfigurer
   SignaturePadWebSocketHandler webSocketHandler()
   {
     log.debug("webSocketHandler");
-    return new SignaturePadWebSocketHandler();
+    return new SignaturePadWebSocketHandler(
+      createSendExecutor(), sendTimeLimit, bufferSizeLimit);
+  }
+
+  /**
+   * Creates the executor used for asynchronous sends to signature pads.
+   * Intentionally not exposed as a bean, so it does not replace the
+   * application task executor used by {@code @Async} methods.
+   * Each session has at most one task in the executor, which sends its
+   * queued messages in order. With virtual threads enabled every task gets
+   * its own virtual thread, otherwise a fixed pool of platform threads with
+   * a bounded queue is used.
+   *
+   * @return the outbound message executor
+   */
+  private Executor createSendExecutor()
+  {
+    if(virtualThreadsEnabled)
+    {
+      log.info("WebSocket sends run on virtual threads");
+      return new VirtualThreadTaskExecutor("ws-send-");
+    }
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(sendPoolSize);
+    executor.setMaxPoolSize(sendPoolSize);
+    executor.setQueueCapacity(sendQueueCapacity);
+    executor.setThreadNamePrefix("ws-send-");
+    executor.setDaemon(true);
+    executor.initialize();
+    return executor;
   }
 
   private class ApiKeyHandshakeInterceptor implements HandshakeInterceptor
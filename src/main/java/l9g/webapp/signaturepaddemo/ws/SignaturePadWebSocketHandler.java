@@ -23,20 +23,31 @@ import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import lombok.Getter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 import lombok.RequiredArgsConstructor;
 import org.springframework.lang.NonNull;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
 /**
  * WebSocket handler for managing real-time communication with signature pad devices.
  * Handles connection lifecycle, message routing, and event broadcasting to signature pads.
  * Maintains active sessions and provides methods to send events to specific pads or all connected devices.
  *
+ * <p>Every session is wrapped in a {@link SerialSendSessionDecorator} which
+ * hands its sends to the outbound executor one at a time, so a stalled pad
+ * never blocks the caller and messages for one pad keep their order.
+ * Sessions exceeding the send-time or buffer-size limit are closed and
+ * removed from the registry.</p>
+ *
  * @author Thorsten Ludewig (t.ludewig@gmail.com)
  */
 @Slf4j
@@ -44,16 +55,47 @@ import org.springframework.web.socket.WebSocketMessage;
 public class SignaturePadWebSocketHandler implements WebSocketHandler
 {
   /**
-   * Map storing active WebSocket sessions indexed by session ID
+   * Registry of active WebSocket sessions indexed by session ID and pad UUID
    */
-  @Getter
-  private final Map<String, WebSocketSession> sessionsBySessionId = new HashMap<>();
+  private final SignaturePadSessionRegistry sessionRegistry =
+    new SignaturePadSessionRegistry();
 
   /**
    * Object mapper for JSON serialization of outgoing messages
    */
   private final ObjectMapper objectMapper = new ObjectMapper();
 
+  /**
+   * Executor running the outbound sends
+   */
+  private final Executor sendExecutor;
+
+  /**
+   * Maximum time in milliseconds a single send may take
+   */
+  private final int sendTimeLimit;
+
+  /**
+   * Maximum number of bytes buffered per session while a send is in progress
+   */
+  private final int bufferSizeLimit;
+
+  /**
+   * Number of slow-consumer evictions per signature pad UUID
+   */
+  private final Map<String, LongAdder> evictionsByPadUuid = new ConcurrentHashMap<>();
+
+  /**
+   * Messages handed to a session, from queueing until the send returned
+   */
+  private final LongAdder sentMessages = new LongAdder();
+
+  private final LongAdder sendNanos = new LongAdder();
+
+  private final LongAdder sendFailures = new LongAdder();
+
+  private final LongAdder evictions = new LongAdder();
+
   /**
    * Invoked after a new WebSocket connection has been established.
    * Validates the signature pad UUID and stores the session if valid.
@@ -76,7 +118,8 @@ public class SignaturePadWebSocketHandler implements WebSocketHandler
       if(uuid.toString().equals(padUuid))
       {
         log.debug("store session");
-        this.sessionsBySessionId.put(session.getId(), session);
+        sessionRegistry.add(padUuid, new SerialSendSessionDecorator(
+          session, sendExecutor, sendTimeLimit, bufferSizeLimit));
       }
     }
   }
@@ -116,8 +159,8 @@ public class SignaturePadWebSocketHandler implements WebSocketHandler
   {
     log.error("handleTransportError: session id = {}, error: {}",
       session.getId(), exception.getMessage());
+    sessionRegistry.remove(session);
     session.close();
-    sessionsBySessionId.remove(session.getId());
   }
 
   /**
@@ -136,7 +179,7 @@ public class SignaturePadWebSocketHandler implements WebSocketHandler
   {
     log.debug("afterConnectionClosed {} status {}/{}",
       session.getId(), closeStatus.getCode(), closeStatus.getReason());
-    sessionsBySessionId.remove(session.getId());
+    sessionRegistry.remove(session);
   }
 
   /**
@@ -150,36 +193,102 @@ public class SignaturePadWebSocketHandler implements WebSocketHandler
     return false;
   }
 
+  /**
+   * Returns an immutable snapshot of the connected signature pad sessions.
+   *
+   * @return map of session ID to signature pad UUID
+   */
+  public Map<String, String> getSessionSnapshot()
+  {
+    return sessionRegistry.snapshot();
+  }
+
+  /**
+   * @return number of connected signature pad sessions
+   */
+  public int getSessionCount()
+  {
+    return sessionRegistry.size();
+  }
+
+  /**
+   * Returns the current outbound queue state of every connected session
+   * together with the slow-consumer evictions of its signature pad.
+   *
+   * @return list of outbound statistics, one entry per session
+   */
+  public List<SignaturePadSendStatistics> getSendStatistics()
+  {
+    List<SignaturePadSendStatistics> list = new ArrayList<>();
+    for(WebSocketSession session : sessionRegistry.getAllSessions())
+    {
+      String padUuid = SignaturePadSessionRegistry.padUuidOf(session);
+      int bufferSize = 0;
+      long timeSinceSendStarted = 0;
+      if(session instanceof SerialSendSessionDecorator decorator)
+      {
+        bufferSize = decorator.getBufferSize();
+        timeSinceSendStarted = decorator.getTimeSinceSendStarted();
+      }
+      list.add(new SignaturePadSendStatistics(session.getId(), padUuid,
+        bufferSize, timeSinceSendStarted, getEvictionCount(padUuid)));
+    }
+    return list;
+  }
+
+  /**
+   * @param padUuid the unique identifier of the signature pad
+   *
+   * @return number of sessions of the pad closed as slow consumers
+   */
+  public long getEvictionCount(String padUuid)
+  {
+    LongAdder evictions = evictionsByPadUuid.get(padUuid);
+    return evictions != null ? evictions.sum() : 0;
+  }
+
+  /**
+   * Returns the totals of all outbound sends since startup. The send time
+   * covers the wait in the outbound executor and the send itself.
+   *
+   * @return outbound fan-out statistics
+   */
+  public SignaturePadFanOutStatistics getFanOutStatistics()
+  {
+    return new SignaturePadFanOutStatistics(
+      sentMessages.sum(),
+      sendNanos.sum(),
+      sendFailures.sum(),
+      evictions.sum()
+    );
+  }
+
   /**
    * Broadcasts an event to all connected signature pad sessions.
+   * The event is serialized once and the same frame is queued for every session.
    * Automatically cleans up closed sessions during the broadcast process.
    *
    * @param event the event to be sent to all WebSocket sessions
    *
-   * @throws IOException if an I/O error occurs while sending the message
+   * @throws IOException if the event cannot be serialized
    */
   public void fireEventToAllSessions(DtoEvent event)
     throws IOException
   {
-    log.trace("fireEvent to {} sessions", sessionsBySessionId.size());
+    log.trace("fireEvent to {} sessions", sessionRegistry.size());
 
-    // Clean up closed sessions
-    sessionsBySessionId.forEach((id, session) ->
+    TextMessage message = encode(event);
+
+    for(WebSocketSession session : sessionRegistry.getAllSessions())
     {
-      if(session == null ||  ! session.isOpen())
+      if(session.isOpen())
       {
-        sessionsBySessionId.remove(id);
+        sendAsync(session, message);
       }
-    });
-
-    // Send event to all active sessions
-    for(WebSocketSession session : sessionsBySessionId.values())
-    {
-      if(session != null && session.isOpen())
+      else
       {
-        String json = objectMapper.writeValueAsString(event);
-        session.sendMessage(new TextMessage(json));
-        log.trace("Sent text message: {}", json);
+        // Clean up closed sessions
+        sessionRegistry.remove(session);
       }
     }
   }
@@ -191,29 +300,94 @@ public class SignaturePadWebSocketHandler implements WebSocketHandler
    * @param event the event to send to the signature pad
    * @param padUuid the unique identifier of the target signature pad
    *
-   * @throws IOException if an I/O error occurs while sending the message
+   * @throws IOException if the event cannot be serialized
    */
   public void fireEventToPad(DtoEvent event, String padUuid)
     throws IOException
   {
     log.trace("fireEvent to pad {}", padUuid);
-    sessionsBySessionId.values().forEach(session ->
+
+    TextMessage message = null;
+
+    for(WebSocketSession session : sessionRegistry.getSessionsByPadUuid(padUuid))
     {
-      // Check if session is open and belongs to the target signature pad
-      if(session.isOpen() && padUuid.equals((String)session.getAttributes().get(SignaturePadWebSocketConfig.SIGNATURE_PAD_UUID)))
+      if(session.isOpen())
+      {
+        if(message == null)
+        {
+          message = encode(event);
+        }
+        sendAsync(session, message);
+      }
+    }
+  }
+
+  /**
+   * Queues a message for a session without blocking the caller.
+   * The decorator sends the messages of one session in queue order;
+   * exceeding its limits closes the session and evicts it from the registry.
+   */
+  private void sendAsync(WebSocketSession session, TextMessage message)
+  {
+    if( ! (session instanceof SerialSendSessionDecorator serialSession))
+    {
+      log.error("session {} is not registered for outbound sends", session.getId());
+      return;
+    }
+
+    long queued = System.nanoTime();
+    try
+    {
+      serialSession.submit(message.getPayloadLength(), () ->
       {
         try
         {
-          String json = objectMapper.writeValueAsString(event);
-          session.sendMessage(new TextMessage(json));
-          log.trace("Sent text message: {}", json);
+          session.sendMessage(message);
+          sentMessages.increment();
+          sendNanos.add(System.nanoTime() - queued);
         }
         catch(Exception ex)
         {
-          log.error("can't send message", ex);
+          sendFailures.increment();
+          log.error("can't send message to session {}", session.getId(), ex);
         }
-      }
-    });
+      });
+    }
+    catch(SessionLimitExceededException ex)
+    {
+      sendFailures.increment();
+      evictions.increment();
+      String padUuid = SignaturePadSessionRegistry.padUuidOf(session);
+      log.warn("evicting slow signature pad session {}/{}: {}",
+        session.getId(), padUuid, ex.getMessage());
+      evictionsByPadUuid.computeIfAbsent(padUuid, k -> new LongAdder())
+        .increment();
+      sessionRegistry.remove(session);
+    }
+    catch(RejectedExecutionException ex)
+    {
+      // the message stays queued and is sent with the next drain of the session
+      log.warn("outbound executor saturated, message for session {} stays queued",
+        session.getId());
+    }
+  }
+
+  /**
+   * Serializes an event into an immutable text frame which can be shared
+   * by all recipients of a broadcast.
+   *
+   * @param event the event to serialize
+   *
+   * @return the text frame containing the JSON representation of the event
+   *
+   * @throws IOException if the event cannot be serialized
+   */
+  TextMessage encode(DtoEvent event)
+    throws IOException
+  {
+    String json = objectMapper.writeValueAsString(event);
+    log.trace("Encoded text message: {}", json);
+    return new TextMessage(json);
   }
 
 }
@@ -121,12 +121,13 @@ okButton.addEventListener("click", async () => {
     };
 
     const privateJwk = JSON.parse(localStorage.getItem('SIGNATURE_PAD_PRIVATE_JWK'));
-    const privateKey = await importJWK(privateJwk, 'RS256');
+    const alg = privateJwk.alg || 'RS256';
+    const privateKey = await importJWK(privateJwk, alg);
 
     const jwt = await new CompactSign(
             new TextEncoder().encode(JSON.stringify(payload))
             )
-            .setProtectedHeader({alg: 'RS256', kid: privateJwk.kid})
+            .setProtectedHeader({alg: alg, kid: privateJwk.kid})
             .sign(privateKey);
 
     // console.log('🔐 Signiertes JWT:', jwt);
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.controller.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link PendingSignatureRegistry}.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+class PendingSignatureRegistryTest
+{
+  private static final String PAD_UUID = "7b1f0c3e-2d4a-4c55-9e61-0a8f3b2c1d00";
+
+  private PendingSignatureRegistry registry;
+
+  @BeforeEach
+  void setUp()
+  {
+    registry = new PendingSignatureRegistry();
+    ReflectionTestUtils.setField(registry, "maxPending", 10);
+    ReflectionTestUtils.setField(registry, "tickMillis", 10L);
+    ReflectionTestUtils.setField(registry, "unclaimedTtl", 30000L);
+    registry.init();
+  }
+
+  @AfterEach
+  void tearDown()
+  {
+    registry.close();
+  }
+
+  @Test
+  void lateSignatureIsHeldForNextWait()
+    throws InterruptedException
+  {
+    AtomicInteger expiries = new AtomicInteger();
+    DeferredResult<ResponsePayload> first = registry
+      .register(PAD_UUID, 50, expiries::incrementAndGet).getDeferred();
+    awaitResult(first);
+
+    assertEquals(1, expiries.get());
+    assertEquals("timeout", ((ResponsePayload)first.getResult()).status());
+
+    // signature sent by the pad just before the timeout hid it
+    assertFalse(registry.complete(PAD_UUID,
+      new ResponsePayload("ok", "c2lnbmF0dXJl"), true));
+    assertEquals(1, registry.getStatistics().unclaimed());
+
+    DeferredResult<ResponsePayload> second = registry
+      .register(PAD_UUID, 60000, () ->
+      {
+      }).getDeferred();
+
+    assertTrue(second.hasResult());
+    ResponsePayload payload = (ResponsePayload)second.getResult();
+    assertEquals("ok", payload.status());
+    assertEquals("c2lnbmF0dXJl", payload.sigpng());
+  }
+
+  @Test
+  void explicitHideDropsHeldSignature()
+    throws InterruptedException
+  {
+    DeferredResult<ResponsePayload> first = registry
+      .register(PAD_UUID, 50, () ->
+      {
+      }).getDeferred();
+    awaitResult(first);
+
+    assertFalse(registry.complete(PAD_UUID,
+      new ResponsePayload("ok", "c2lnbmF0dXJl"), true));
+    registry.discardUnclaimed(PAD_UUID);
+
+    DeferredResult<ResponsePayload> second = registry
+      .register(PAD_UUID, 60000, () ->
+      {
+      }).getDeferred();
+
+    assertFalse(second.hasResult());
+  }
+
+  private static void awaitResult(DeferredResult<?> deferred)
+    throws InterruptedException
+  {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while( ! deferred.hasResult() && System.nanoTime() < deadline)
+    {
+      Thread.sleep(10);
+    }
+    assertTrue(deferred.hasResult(), "wait did not expire");
+  }
+
+}
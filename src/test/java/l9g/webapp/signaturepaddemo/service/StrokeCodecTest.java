@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Thorsten Ludewig (t.ludewig@gmail.com).
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package l9g.webapp.signaturepaddemo.service;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for {@link StrokeCodec}.
+ *
+ * @author Thorsten Ludewig (t.ludewig@gmail.com)
+ */
+class StrokeCodecTest
+{
+  private static final long START = 1750000000000L;
+
+  private static StrokeSignature signature()
+  {
+    return new StrokeSignature(600, 200, 0xffffffff, START, List.of(
+      new StrokeSignature.Stroke(0x000000, 0.5f, 2.5f, List.of(
+        new StrokeSignature.Point(10.5f, 20f, 1f, START),
+        new StrokeSignature.Point(12f, 18.5f, 0f, START + 16),
+        new StrokeSignature.Point(8.2f, 25f, 1f, START + 40))),
+      new StrokeSignature.Stroke(0x1a2b3c, 0.75f, 3f, List.of(
+        new StrokeSignature.Point(300f, 150.1f, 1f, START + 500)))));
+  }
+
+  @Test
+  void roundTrip()
+  {
+    StrokeSignature signature = signature();
+
+    assertEquals(signature, StrokeCodec.decode(StrokeCodec.encode(signature)));
+  }
+
+  @Test
+  void roundTripWithoutStrokes()
+  {
+    StrokeSignature signature = new StrokeSignature(320, 120, 0, START, List.of());
+
+    assertEquals(signature, StrokeCodec.decode(StrokeCodec.encode(signature)));
+  }
+
+  @Test
+  void truncatedDataIsRejected()
+  {
+    byte[] data = StrokeCodec.encode(signature());
+
+    for(int length = 0; length < data.length; length ++)
+    {
+      byte[] truncated = Arrays.copyOf(data, length);
+      assertThrows(IllegalArgumentException.class,
+        () -> StrokeCodec.decode(truncated));
+    }
+  }
+
+  @Test
+  void unknownFormatIsRejected()
+  {
+    byte[] data = StrokeCodec.encode(signature());
+    data[2] = 2;
+
+    assertThrows(IllegalArgumentException.class, () -> StrokeCodec.decode(data));
+  }
+
+  @Test
+  void largeStrokeCountWithoutDataIsRejected()
+  {
+    // header announcing 1 << 20 strokes, followed by no stroke data
+    byte[] data =
+    {
+      'S', 'P', 1, 10, 10, 0, 0, (byte)0x80, (byte)0x80, 0x40
+    };
+
+    assertThrows(IllegalArgumentException.class, () -> StrokeCodec.decode(data));
+  }
+
+  @Test
+  void oversizedStrokeCountIsRejected()
+  {
+    // header announcing (1 << 20) + 1 strokes
+    byte[] data =
+    {
+      'S', 'P', 1, 10, 10, 0, 0, (byte)0x81, (byte)0x80, 0x40
+    };
+
+    IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+      () -> StrokeCodec.decode(data));
+    assertEquals("Count out of range: 1048577", e.getMessage());
+  }
+
+  @Test
+  void oversizedPointCountIsRejected()
+  {
+    // one stroke announcing (1 << 20) + 1 points
+    byte[] data =
+    {
+      'S', 'P', 1, 10, 10, 0, 0, 1, 0, 50, (byte)0xfa, 0x01,
+      (byte)0x81, (byte)0x80, 0x40
+    };
+
+    assertThrows(IllegalArgumentException.class, () -> StrokeCodec.decode(data));
+  }
+
+}